@@ -2,16 +2,13 @@ package net.i2p.android.ext.floatingactionbutton;
 
 import android.content.Context;
 import android.content.res.TypedArray;
-import android.graphics.Canvas;
-import android.graphics.Paint;
-import android.graphics.Paint.Style;
-import android.graphics.drawable.Drawable;
-import android.graphics.drawable.ShapeDrawable;
-import android.graphics.drawable.shapes.Shape;
+import android.support.annotation.ColorRes;
+import android.support.annotation.DrawableRes;
 import android.util.AttributeSet;
 
 public class AddFloatingActionButton extends FloatingActionButton {
   int mPlusColor;
+  private PlusDrawable mPlusDrawable;
 
   public AddFloatingActionButton(Context context) {
     this(context, null);
@@ -43,30 +40,100 @@ public class AddFloatingActionButton extends FloatingActionButton {
     super.init(context, attributeSet);
   }
 
+  public int getPlusColor() {
+    return mPlusColor;
+  }
+
+  public void setPlusColor(int color) {
+    edit().setPlusColor(color).apply();
+  }
+
+  public void setPlusColorResId(@ColorRes int plusColor) {
+    setPlusColor(getColor(plusColor));
+  }
+
   @Override
-  Drawable getIconDrawable() {
-    final float iconSize = getDimension(R.dimen.fab_icon_size);
-    final float iconHalfSize = iconSize / 2f;
-
-    final float plusSize = getDimension(R.dimen.fab_plus_icon_size);
-    final float plusHalfStroke = getDimension(R.dimen.fab_plus_icon_stroke) / 2f;
-    final float plusOffset = (iconSize - plusSize) / 2f;
-
-    final Shape shape = new Shape() {
-      @Override
-      public void draw(Canvas canvas, Paint paint) {
-        canvas.drawRect(plusOffset, iconHalfSize - plusHalfStroke, iconSize - plusOffset, iconHalfSize + plusHalfStroke, paint);
-        canvas.drawRect(iconHalfSize - plusHalfStroke, plusOffset, iconHalfSize + plusHalfStroke, iconSize - plusOffset, paint);
-      }
-    };
+  public Editor edit() {
+    return new Editor();
+  }
 
-    ShapeDrawable drawable = new ShapeDrawable(shape);
+  @Override
+  PlusDrawable getIconDrawable() {
+    final FabStats.Listener stats = FabStats.getListener();
+    final long start = stats != null ? System.nanoTime() : 0;
 
-    final Paint paint = drawable.getPaint();
-    paint.setColor(mPlusColor);
-    paint.setStyle(Style.FILL);
-    paint.setAntiAlias(true);
+    PlusDrawable drawable = mPlusDrawable;
+    if (drawable == null || !drawable.matches(getMetrics())) {
+      drawable = new PlusDrawable(getMetrics());
+      mPlusDrawable = drawable;
+    }
+    drawable.setTint(mPlusColor);
 
+    if (stats != null) {
+      stats.onIconLoaded(this, System.nanoTime() - start);
+    }
     return drawable;
   }
+
+  public class Editor extends FloatingActionButton.Editor {
+    private int mNewPlusColor = mPlusColor;
+
+    Editor() {
+    }
+
+    public Editor setPlusColor(int color) {
+      mNewPlusColor = color;
+      return this;
+    }
+
+    public Editor setPlusColorResId(@ColorRes int plusColor) {
+      return setPlusColor(getColor(plusColor));
+    }
+
+    @Override
+    public Editor setColorNormal(int color) {
+      super.setColorNormal(color);
+      return this;
+    }
+
+    @Override
+    public Editor setColorNormalResId(@ColorRes int colorNormal) {
+      super.setColorNormalResId(colorNormal);
+      return this;
+    }
+
+    @Override
+    public Editor setColorPressed(int color) {
+      super.setColorPressed(color);
+      return this;
+    }
+
+    @Override
+    public Editor setColorPressedResId(@ColorRes int colorPressed) {
+      super.setColorPressedResId(colorPressed);
+      return this;
+    }
+
+    @Override
+    public Editor setSize(int size) {
+      super.setSize(size);
+      return this;
+    }
+
+    @Override
+    public Editor setIcon(@DrawableRes int icon) {
+      super.setIcon(icon);
+      return this;
+    }
+
+    @Override
+    public void apply() {
+      int changes = 0;
+      if (mPlusColor != mNewPlusColor) {
+        mPlusColor = mNewPlusColor;
+        changes |= CHANGED_ICON;
+      }
+      commit(changes);
+    }
+  }
 }
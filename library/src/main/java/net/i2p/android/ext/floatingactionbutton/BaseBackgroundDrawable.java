@@ -0,0 +1,101 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.graphics.Canvas;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+abstract class BaseBackgroundDrawable extends Drawable {
+  private final int mSize;
+
+  private int mColorNormal;
+  private int mColorPressed;
+  private boolean mPressed;
+  private int mAlpha = 0xff;
+
+  BaseBackgroundDrawable(int size, int colorNormal, int colorPressed) {
+    mSize = size;
+    mColorNormal = colorNormal;
+    mColorPressed = colorPressed;
+  }
+
+  abstract void updatePaints(int fillColor, int alpha);
+
+  abstract void draw(Canvas canvas, float left, float top);
+
+  void setColors(int colorNormal, int colorPressed) {
+    if (mColorNormal != colorNormal || mColorPressed != colorPressed) {
+      mColorNormal = colorNormal;
+      mColorPressed = colorPressed;
+      updatePaints();
+      invalidateSelf();
+    }
+  }
+
+  static int opacityToAlpha(float opacity) {
+    return (int) (255f * opacity);
+  }
+
+  static int modulateAlpha(int alpha, int modulation) {
+    return alpha * (modulation + (modulation >>> 7)) >>> 8;
+  }
+
+  final void updatePaints() {
+    updatePaints(mPressed ? mColorPressed : mColorNormal, mAlpha);
+  }
+
+  @Override
+  public void draw(Canvas canvas) {
+    final Rect bounds = getBounds();
+    draw(canvas, bounds.left, bounds.top);
+  }
+
+  @Override
+  public boolean isStateful() {
+    return true;
+  }
+
+  @Override
+  protected boolean onStateChange(int[] state) {
+    boolean pressed = false;
+    for (int s : state) {
+      if (s == android.R.attr.state_pressed) {
+        pressed = true;
+        break;
+      }
+    }
+
+    if (pressed != mPressed) {
+      mPressed = pressed;
+      updatePaints();
+      // before API 23 the view does not redraw when only its background's state changes
+      invalidateSelf();
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public int getIntrinsicWidth() {
+    return mSize;
+  }
+
+  @Override
+  public int getIntrinsicHeight() {
+    return mSize;
+  }
+
+  @Override
+  public void setAlpha(int alpha) {
+    if (mAlpha != alpha) {
+      mAlpha = alpha;
+      updatePaints();
+      invalidateSelf();
+    }
+  }
+
+  @Override
+  public int getOpacity() {
+    return PixelFormat.TRANSLUCENT;
+  }
+}
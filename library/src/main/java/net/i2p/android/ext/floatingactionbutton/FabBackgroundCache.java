@@ -0,0 +1,257 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.graphics.drawable.Drawable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class FabBackgroundCache {
+  private static final int DEFAULT_MAX_SIZE = 32;
+
+  private static final int KIND_BITMAPS = 0;
+  private static final int KIND_MASKS = 1;
+  private static final int KIND_SHADOW = 2;
+  private static final int KIND_ICON = 3;
+  private static final String[] KIND_NAMES = { "backgrounds", "masks", "shadows", "icons" };
+
+  private static final FabBackgroundCache sInstance = new FabBackgroundCache(DEFAULT_MAX_SIZE);
+
+  // one access-ordered map for every kind, so maxSize bounds the whole cache and eviction is least recently used overall
+  private final LinkedHashMap<Object, Object> mItems = new LinkedHashMap<Object, Object>(0, 0.75f, true);
+  private final int[] mHitCounts = new int[KIND_NAMES.length];
+  private final int[] mMissCounts = new int[KIND_NAMES.length];
+  private int mMaxSize;
+
+  private FabBackgroundCache(int maxSize) {
+    mMaxSize = maxSize;
+  }
+
+  public static FabBackgroundCache getInstance() {
+    return sInstance;
+  }
+
+  private Object get(Object key, int kind) {
+    final Object item = mItems.get(key);
+    if (item != null) {
+      mHitCounts[kind]++;
+    } else {
+      mMissCounts[kind]++;
+    }
+    return item;
+  }
+
+  private void put(Object key, Object item) {
+    mItems.put(key, item);
+    trimToSize(mMaxSize);
+  }
+
+  synchronized Entry get(Key key) {
+    return (Entry) get(key, KIND_BITMAPS);
+  }
+
+  synchronized Entry peek(Key key) {
+    return (Entry) mItems.get(key);
+  }
+
+  synchronized void put(Key key, Entry entry) {
+    put((Object) key, entry);
+  }
+
+  synchronized FabMaskDrawable.Masks getMasks(Key key) {
+    return (FabMaskDrawable.Masks) get(key, KIND_MASKS);
+  }
+
+  synchronized FabMaskDrawable.Masks peekMasks(Key key) {
+    return (FabMaskDrawable.Masks) mItems.get(key);
+  }
+
+  synchronized void putMasks(Key key, FabMaskDrawable.Masks masks) {
+    put(key, masks);
+  }
+
+  synchronized Drawable.ConstantState getShadow(Key key) {
+    return (Drawable.ConstantState) get(key, KIND_SHADOW);
+  }
+
+  synchronized Drawable.ConstantState peekShadow(Key key) {
+    return (Drawable.ConstantState) mItems.get(key);
+  }
+
+  synchronized void putShadow(Key key, Drawable.ConstantState shadow) {
+    put(key, shadow);
+  }
+
+  synchronized Drawable.ConstantState getIcon(IconKey key) {
+    return (Drawable.ConstantState) get(key, KIND_ICON);
+  }
+
+  synchronized void putIcon(IconKey key, Drawable.ConstantState icon) {
+    put(key, icon);
+  }
+
+  private void trimToSize(int maxSize) {
+    while (mItems.size() > maxSize) {
+      Map.Entry<Object, Object> eldest = mItems.entrySet().iterator().next();
+      mItems.remove(eldest.getKey());
+    }
+  }
+
+  public synchronized void resize(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize <= 0");
+    }
+    mMaxSize = maxSize;
+    trimToSize(maxSize);
+  }
+
+  synchronized void trim(int size) {
+    trimToSize(size);
+  }
+
+  public synchronized void evictAll() {
+    mItems.clear();
+  }
+
+  /**
+   * Returns the number of cached items of every kind: backgrounds, alpha masks, shadows and icons.
+   */
+  public synchronized int size() {
+    return mItems.size();
+  }
+
+  /**
+   * Returns the maximum number of cached items of all kinds together.
+   */
+  public synchronized int maxSize() {
+    return mMaxSize;
+  }
+
+  /**
+   * Returns the number of rasterized background lookups that were served from the cache.
+   */
+  public synchronized int hitCount() {
+    return mHitCounts[KIND_BITMAPS];
+  }
+
+  /**
+   * Returns the number of rasterized background lookups that had to render new bitmaps.
+   */
+  public synchronized int missCount() {
+    return mMissCounts[KIND_BITMAPS];
+  }
+
+  @Override
+  public synchronized String toString() {
+    final StringBuilder builder = new StringBuilder("FabBackgroundCache[size=").append(mItems.size())
+        .append(",maxSize=").append(mMaxSize);
+    for (int kind = 0; kind < KIND_NAMES.length; kind++) {
+      final int accesses = mHitCounts[kind] + mMissCounts[kind];
+      final int hitPercent = accesses != 0 ? (100 * mHitCounts[kind] / accesses) : 0;
+      builder.append(',').append(KIND_NAMES[kind]).append("=[hits=").append(mHitCounts[kind])
+          .append(",misses=").append(mMissCounts[kind]).append(",hitRate=").append(hitPercent).append("%]");
+    }
+    return builder.append(']').toString();
+  }
+
+  static final class Key {
+    final int mKind;
+    final int mDrawableSize;
+    final float mCircleSize;
+    final int mColorNormal;
+    final int mColorPressed;
+    final float mStrokeWidth;
+    final float mDensity;
+
+    private Key(int kind, int drawableSize, float circleSize, int colorNormal, int colorPressed, float strokeWidth, float density) {
+      mKind = kind;
+      mDrawableSize = drawableSize;
+      mCircleSize = circleSize;
+      mColorNormal = colorNormal;
+      mColorPressed = colorPressed;
+      mStrokeWidth = strokeWidth;
+      mDensity = density;
+    }
+
+    static Key forBitmaps(FabMetrics metrics, int size, int colorNormal, int colorPressed) {
+      return new Key(KIND_BITMAPS, metrics.drawableSize(size), metrics.circleSize(size), colorNormal, colorPressed, metrics.strokeWidth, metrics.density);
+    }
+
+    static Key forMasks(FabMetrics metrics, int size) {
+      return new Key(KIND_MASKS, metrics.drawableSize(size), metrics.circleSize(size), 0, 0, metrics.strokeWidth, metrics.density);
+    }
+
+    static Key forShadow(FabMetrics metrics, int size) {
+      return new Key(KIND_SHADOW, metrics.drawableSize(size), metrics.circleSize(size), 0, 0, 0f, metrics.density);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+
+      Key key = (Key) o;
+      return mKind == key.mKind
+          && mDrawableSize == key.mDrawableSize
+          && Float.compare(mCircleSize, key.mCircleSize) == 0
+          && mColorNormal == key.mColorNormal
+          && mColorPressed == key.mColorPressed
+          && Float.compare(mStrokeWidth, key.mStrokeWidth) == 0
+          && Float.compare(mDensity, key.mDensity) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = mKind;
+      result = 31 * result + mDrawableSize;
+      result = 31 * result + Float.floatToIntBits(mCircleSize);
+      result = 31 * result + mColorNormal;
+      result = 31 * result + mColorPressed;
+      result = 31 * result + Float.floatToIntBits(mStrokeWidth);
+      result = 31 * result + Float.floatToIntBits(mDensity);
+      return result;
+    }
+  }
+
+  static final class IconKey {
+    final int mResId;
+    final int mSize;
+    final float mDensity;
+
+    IconKey(int resId, int size, float density) {
+      mResId = resId;
+      mSize = size;
+      mDensity = density;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof IconKey)) return false;
+
+      IconKey key = (IconKey) o;
+      return mResId == key.mResId
+          && mSize == key.mSize
+          && Float.compare(mDensity, key.mDensity) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = mResId;
+      result = 31 * result + mSize;
+      result = 31 * result + Float.floatToIntBits(mDensity);
+      return result;
+    }
+  }
+
+  static final class Entry {
+    final Drawable.ConstantState mNormal;
+    final Drawable.ConstantState mPressed;
+    final Drawable.ConstantState mStrokes;
+
+    Entry(Drawable.ConstantState normal, Drawable.ConstantState pressed, Drawable.ConstantState strokes) {
+      mNormal = normal;
+      mPressed = pressed;
+      mStrokes = strokes;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.RectF;
+import android.graphics.Shader.TileMode;
+
+class FabBackgroundDrawable extends BaseBackgroundDrawable {
+  private static final int HALF_TRANSPARENT_WHITE = Color.argb(128, 255, 255, 255);
+  private static final int HALF_TRANSPARENT_BLACK = Color.argb(128, 0, 0, 0);
+
+  private final RectF mCircleRect;
+  private final RectF mOuterStrokeRect;
+  private final RectF mInnerStrokeRect;
+  private final boolean mDrawStrokes;
+
+  private final Paint mFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+  private final Paint mOuterStrokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+  private final Paint mInnerBottomStrokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+  private final Paint mInnerTopStrokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+  FabBackgroundDrawable(int size, RectF circleRect, float strokeWidth, int colorNormal, int colorPressed, boolean drawStrokes) {
+    super(size, colorNormal, colorPressed);
+    mCircleRect = new RectF(circleRect);
+    mDrawStrokes = drawStrokes;
+
+    final float halfStrokeWidth = strokeWidth / 2f;
+
+    mOuterStrokeRect = new RectF(
+        circleRect.left - halfStrokeWidth,
+        circleRect.top - halfStrokeWidth,
+        circleRect.right + halfStrokeWidth,
+        circleRect.bottom + halfStrokeWidth
+    );
+
+    mInnerStrokeRect = new RectF(
+        circleRect.left + halfStrokeWidth,
+        circleRect.top + halfStrokeWidth,
+        circleRect.right - halfStrokeWidth,
+        circleRect.bottom - halfStrokeWidth
+    );
+
+    mOuterStrokePaint.setStrokeWidth(strokeWidth);
+    mOuterStrokePaint.setStyle(Style.STROKE);
+    mOuterStrokePaint.setColor(Color.BLACK);
+
+    mInnerBottomStrokePaint.setStrokeWidth(strokeWidth);
+    mInnerBottomStrokePaint.setStyle(Style.STROKE);
+    mInnerBottomStrokePaint.setShader(createInnerBottomGradient(mInnerStrokeRect));
+
+    mInnerTopStrokePaint.setStrokeWidth(strokeWidth);
+    mInnerTopStrokePaint.setStyle(Style.STROKE);
+    mInnerTopStrokePaint.setShader(createInnerTopGradient(mInnerStrokeRect));
+
+    updatePaints();
+  }
+
+  static LinearGradient createInnerBottomGradient(RectF innerStrokeRect) {
+    return new LinearGradient(innerStrokeRect.centerX(), innerStrokeRect.top, innerStrokeRect.centerX(), innerStrokeRect.bottom,
+        new int[] { Color.TRANSPARENT, HALF_TRANSPARENT_BLACK, Color.BLACK },
+        new float[] { 0f, 0.8f, 1f },
+        TileMode.CLAMP
+    );
+  }
+
+  static LinearGradient createInnerTopGradient(RectF innerStrokeRect) {
+    return new LinearGradient(innerStrokeRect.centerX(), innerStrokeRect.top, innerStrokeRect.centerX(), innerStrokeRect.bottom,
+        new int[] { Color.WHITE, HALF_TRANSPARENT_WHITE, Color.TRANSPARENT },
+        new float[] { 0f, 0.2f, 1f },
+        TileMode.CLAMP
+    );
+  }
+
+  @Override
+  void updatePaints(int fillColor, int alpha) {
+    mFillPaint.setColor(fillColor);
+    mFillPaint.setAlpha(modulateAlpha(Color.alpha(fillColor), alpha));
+
+    mOuterStrokePaint.setAlpha(modulateAlpha(opacityToAlpha(0.02f), alpha));
+    mInnerBottomStrokePaint.setAlpha(modulateAlpha(opacityToAlpha(0.04f), alpha));
+    mInnerTopStrokePaint.setAlpha(modulateAlpha(opacityToAlpha(0.8f), alpha));
+  }
+
+  @Override
+  void draw(Canvas canvas, float left, float top) {
+    canvas.save();
+    canvas.translate(left, top);
+
+    canvas.drawOval(mCircleRect, mFillPaint);
+    if (mDrawStrokes) {
+      canvas.drawOval(mOuterStrokeRect, mOuterStrokePaint);
+      canvas.drawOval(mInnerStrokeRect, mInnerBottomStrokePaint);
+      canvas.drawOval(mInnerStrokeRect, mInnerTopStrokePaint);
+    }
+
+    canvas.restore();
+  }
+
+  @Override
+  public void setColorFilter(ColorFilter cf) {
+    mFillPaint.setColorFilter(cf);
+    mOuterStrokePaint.setColorFilter(cf);
+    mInnerBottomStrokePaint.setColorFilter(cf);
+    mInnerTopStrokePaint.setColorFilter(cf);
+    invalidateSelf();
+  }
+}
@@ -0,0 +1,229 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Path;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Region;
+import android.graphics.drawable.Drawable;
+
+class FabCompositeDrawable extends Drawable implements Drawable.Callback {
+  private final int mSize;
+  private final RectF mCircleRect;
+  private final Rect mCircleBounds = new Rect();
+  private final RectF mShadowExtent;
+  private final RectF mShadowBounds = new RectF();
+  private final Path mShadowPath = new Path();
+  private final Region mDrawnRegion = new Region();
+  private final Region mTransparentRegion = new Region();
+
+  private final int mIconInsetHorizontal;
+  private final int mIconInsetTop;
+  private final int mIconInsetBottom;
+
+  private Drawable mShadow;
+  private Drawable mFill;
+  private Drawable mStrokes;
+  private Drawable mIcon;
+
+  private int mAlpha = 0xff;
+  private ColorFilter mColorFilter;
+
+  FabCompositeDrawable(int size, RectF circleRect, RectF shadowExtent, float strokeWidth,
+                       int iconInsetHorizontal, int iconInsetTop, int iconInsetBottom) {
+    mSize = size;
+    mCircleRect = new RectF(circleRect);
+    mCircleRect.inset(-strokeWidth - 1f, -strokeWidth - 1f);
+    mShadowExtent = new RectF(shadowExtent);
+
+    mIconInsetHorizontal = iconInsetHorizontal;
+    mIconInsetTop = iconInsetTop;
+    mIconInsetBottom = iconInsetBottom;
+  }
+
+  Drawable getShadow() {
+    return mShadow;
+  }
+
+  void setShadow(Drawable shadow) {
+    mShadow = replace(mShadow, shadow, false);
+  }
+
+  Drawable getFill() {
+    return mFill;
+  }
+
+  void setFill(Drawable fill) {
+    mFill = replace(mFill, fill, false);
+  }
+
+  Drawable getStrokes() {
+    return mStrokes;
+  }
+
+  void setStrokes(Drawable strokes) {
+    mStrokes = replace(mStrokes, strokes, false);
+  }
+
+  Drawable getIcon() {
+    return mIcon;
+  }
+
+  void setIcon(Drawable icon) {
+    mIcon = replace(mIcon, icon, true);
+  }
+
+  private Drawable replace(Drawable previous, Drawable drawable, boolean icon) {
+    if (previous == drawable) {
+      return drawable;
+    }
+
+    if (previous != null) {
+      previous.setCallback(null);
+    }
+
+    if (drawable != null) {
+      drawable.setCallback(this);
+      drawable.setState(getState());
+      drawable.setAlpha(mAlpha);
+      drawable.setColorFilter(mColorFilter);
+      setChildBounds(drawable, getBounds(), icon);
+    }
+
+    invalidateSelf();
+    return drawable;
+  }
+
+  private void setChildBounds(Drawable drawable, Rect bounds, boolean icon) {
+    if (icon) {
+      drawable.setBounds(bounds.left + mIconInsetHorizontal, bounds.top + mIconInsetTop,
+          bounds.right - mIconInsetHorizontal, bounds.bottom - mIconInsetBottom);
+    } else {
+      drawable.setBounds(bounds);
+    }
+  }
+
+  @Override
+  protected void onBoundsChange(Rect bounds) {
+    mCircleBounds.set(
+        bounds.left + (int) Math.floor(mCircleRect.left),
+        bounds.top + (int) Math.floor(mCircleRect.top),
+        bounds.left + (int) Math.ceil(mCircleRect.right),
+        bounds.top + (int) Math.ceil(mCircleRect.bottom));
+
+    if (mShadow != null) mShadow.setBounds(bounds);
+    if (mFill != null) mFill.setBounds(bounds);
+    if (mStrokes != null) mStrokes.setBounds(bounds);
+    if (mIcon != null) setChildBounds(mIcon, bounds, true);
+
+    mShadowBounds.set(mShadowExtent);
+    mShadowBounds.offset(bounds.left, bounds.top);
+    mShadowPath.reset();
+    mShadowPath.addOval(mShadowBounds, Path.Direction.CW);
+    mTransparentRegion.set(bounds);
+    mDrawnRegion.setPath(mShadowPath, mTransparentRegion);
+    mDrawnRegion.op(mCircleBounds, Region.Op.UNION);
+    mTransparentRegion.op(mDrawnRegion, Region.Op.DIFFERENCE);
+  }
+
+  @Override
+  public void draw(Canvas canvas) {
+    if (mShadow != null) {
+      mShadow.draw(canvas);
+    }
+
+    if (mFill != null || mStrokes != null) {
+      canvas.save();
+      canvas.clipRect(mCircleBounds);
+      if (mFill != null) {
+        mFill.draw(canvas);
+      }
+      if (mStrokes != null) {
+        mStrokes.draw(canvas);
+      }
+      canvas.restore();
+    }
+
+    if (mIcon != null) {
+      mIcon.draw(canvas);
+    }
+  }
+
+  @Override
+  public boolean isStateful() {
+    return (mShadow != null && mShadow.isStateful())
+        || (mFill != null && mFill.isStateful())
+        || (mStrokes != null && mStrokes.isStateful())
+        || (mIcon != null && mIcon.isStateful());
+  }
+
+  @Override
+  protected boolean onStateChange(int[] state) {
+    boolean changed = false;
+    if (mShadow != null && mShadow.setState(state)) changed = true;
+    if (mFill != null && mFill.setState(state)) changed = true;
+    if (mStrokes != null && mStrokes.setState(state)) changed = true;
+    if (mIcon != null && mIcon.setState(state)) changed = true;
+    if (changed) {
+      invalidateSelf();
+    }
+    return changed;
+  }
+
+  @Override
+  public int getIntrinsicWidth() {
+    return mSize;
+  }
+
+  @Override
+  public int getIntrinsicHeight() {
+    return mSize;
+  }
+
+  @Override
+  public void setAlpha(int alpha) {
+    mAlpha = alpha;
+    if (mShadow != null) mShadow.setAlpha(alpha);
+    if (mFill != null) mFill.setAlpha(alpha);
+    if (mStrokes != null) mStrokes.setAlpha(alpha);
+    if (mIcon != null) mIcon.setAlpha(alpha);
+  }
+
+  @Override
+  public void setColorFilter(ColorFilter cf) {
+    mColorFilter = cf;
+    if (mShadow != null) mShadow.setColorFilter(cf);
+    if (mFill != null) mFill.setColorFilter(cf);
+    if (mStrokes != null) mStrokes.setColorFilter(cf);
+    if (mIcon != null) mIcon.setColorFilter(cf);
+  }
+
+  @Override
+  public int getOpacity() {
+    // the circle's anti-aliased edge and the area around it are never opaque
+    return PixelFormat.TRANSLUCENT;
+  }
+
+  @Override
+  public Region getTransparentRegion() {
+    // only the corners outside the shadow's blur are guaranteed empty; computed in onBoundsChange
+    return mTransparentRegion.isEmpty() ? null : mTransparentRegion;
+  }
+
+  @Override
+  public void invalidateDrawable(Drawable who) {
+    invalidateSelf();
+  }
+
+  @Override
+  public void scheduleDrawable(Drawable who, Runnable what, long when) {
+    scheduleSelf(what, when);
+  }
+
+  @Override
+  public void unscheduleDrawable(Drawable who, Runnable what) {
+    unscheduleSelf(what);
+  }
+}
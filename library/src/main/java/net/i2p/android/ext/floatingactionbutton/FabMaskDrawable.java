@@ -0,0 +1,116 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.RectF;
+
+class FabMaskDrawable extends BaseBackgroundDrawable {
+  private final Masks mMasks;
+
+  private final Paint mFillPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+  private final Paint mDarkStrokesPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+  private final Paint mLightStrokesPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+  FabMaskDrawable(int size, Masks masks, int colorNormal, int colorPressed) {
+    super(size, colorNormal, colorPressed);
+    mMasks = masks;
+
+    mDarkStrokesPaint.setColor(Color.BLACK);
+    mLightStrokesPaint.setColor(Color.WHITE);
+
+    updatePaints();
+  }
+
+  static Masks createMasks(int size, RectF circleRect, float strokeWidth) {
+    final Bitmap fill = Bitmap.createBitmap(size, size, Config.ALPHA_8);
+    final Bitmap darkStrokes = Bitmap.createBitmap(size, size, Config.ALPHA_8);
+    final Bitmap lightStrokes = Bitmap.createBitmap(size, size, Config.ALPHA_8);
+    FabStats.reportBitmapAllocated(fill);
+    FabStats.reportBitmapAllocated(darkStrokes);
+    FabStats.reportBitmapAllocated(lightStrokes);
+
+    final Paint paint = new Paint();
+    paint.setAntiAlias(true);
+
+    new Canvas(fill).drawOval(circleRect, paint);
+
+    final float halfStrokeWidth = strokeWidth / 2f;
+
+    RectF outerStrokeRect = new RectF(
+        circleRect.left - halfStrokeWidth,
+        circleRect.top - halfStrokeWidth,
+        circleRect.right + halfStrokeWidth,
+        circleRect.bottom + halfStrokeWidth
+    );
+
+    RectF innerStrokeRect = new RectF(
+        circleRect.left + halfStrokeWidth,
+        circleRect.top + halfStrokeWidth,
+        circleRect.right - halfStrokeWidth,
+        circleRect.bottom - halfStrokeWidth
+    );
+
+    paint.setStrokeWidth(strokeWidth);
+    paint.setStyle(Style.STROKE);
+
+    final Canvas darkCanvas = new Canvas(darkStrokes);
+
+    // outer
+    paint.setAlpha(opacityToAlpha(0.02f));
+    darkCanvas.drawOval(outerStrokeRect, paint);
+
+    // inner bottom
+    paint.setShader(FabBackgroundDrawable.createInnerBottomGradient(innerStrokeRect));
+    paint.setAlpha(opacityToAlpha(0.04f));
+    darkCanvas.drawOval(innerStrokeRect, paint);
+
+    // inner top
+    paint.setShader(FabBackgroundDrawable.createInnerTopGradient(innerStrokeRect));
+    paint.setAlpha(opacityToAlpha(0.8f));
+    new Canvas(lightStrokes).drawOval(innerStrokeRect, paint);
+
+    return new Masks(fill, darkStrokes, lightStrokes);
+  }
+
+  @Override
+  void updatePaints(int fillColor, int alpha) {
+    // ALPHA_8 bitmaps are drawn in the paint's color, which tints the shared masks
+    mFillPaint.setColor(fillColor);
+    mFillPaint.setAlpha(modulateAlpha(Color.alpha(fillColor), alpha));
+
+    mDarkStrokesPaint.setAlpha(alpha);
+    mLightStrokesPaint.setAlpha(alpha);
+  }
+
+  @Override
+  void draw(Canvas canvas, float left, float top) {
+    canvas.drawBitmap(mMasks.mFill, left, top, mFillPaint);
+    canvas.drawBitmap(mMasks.mDarkStrokes, left, top, mDarkStrokesPaint);
+    canvas.drawBitmap(mMasks.mLightStrokes, left, top, mLightStrokesPaint);
+  }
+
+  @Override
+  public void setColorFilter(ColorFilter cf) {
+    mFillPaint.setColorFilter(cf);
+    mDarkStrokesPaint.setColorFilter(cf);
+    mLightStrokesPaint.setColorFilter(cf);
+    invalidateSelf();
+  }
+
+  static final class Masks {
+    final Bitmap mFill;
+    final Bitmap mDarkStrokes;
+    final Bitmap mLightStrokes;
+
+    Masks(Bitmap fill, Bitmap darkStrokes, Bitmap lightStrokes) {
+      mFill = fill;
+      mDarkStrokes = darkStrokes;
+      mLightStrokes = lightStrokes;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.annotation.TargetApi;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Build.VERSION_CODES;
+
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+@TargetApi(VERSION_CODES.ICE_CREAM_SANDWICH)
+final class FabMemoryTrimmer implements ComponentCallbacks2 {
+  private static FabMemoryTrimmer sInstance;
+
+  private final WeakHashMap<FloatingActionButton, Boolean> mButtons = new WeakHashMap<FloatingActionButton, Boolean>();
+
+  private FabMemoryTrimmer() {
+  }
+
+  /**
+   * ComponentCallbacks2 is API 14, so callers must check the SDK version before this class is loaded.
+   */
+  static synchronized void register(Context context, FloatingActionButton button) {
+    if (sInstance == null) {
+      sInstance = new FabMemoryTrimmer();
+      context.getApplicationContext().registerComponentCallbacks(sInstance);
+    }
+    sInstance.mButtons.put(button, Boolean.TRUE);
+  }
+
+  @Override
+  public void onTrimMemory(int level) {
+    final ArrayList<FloatingActionButton> buttons;
+    synchronized (FabMemoryTrimmer.class) {
+      buttons = new ArrayList<FloatingActionButton>(mButtons.keySet());
+    }
+    for (FloatingActionButton button : buttons) {
+      button.onTrimMemory(level);
+    }
+
+    final FabBackgroundCache cache = FabBackgroundCache.getInstance();
+    if (level >= TRIM_MEMORY_MODERATE || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+      cache.evictAll();
+    } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+      cache.trim(cache.maxSize() / 2);
+    }
+  }
+
+  @Override
+  public void onLowMemory() {
+    // drop the cache and the hidden buttons' layers, but keep the visible buttons drawn
+    onTrimMemory(TRIM_MEMORY_RUNNING_CRITICAL);
+  }
+
+  @Override
+  public void onConfigurationChanged(Configuration newConfig) {
+  }
+}
@@ -0,0 +1,128 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.RectF;
+
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+final class FabMetrics {
+  private static final int MAX_METRICS = 4;
+  private static final ArrayList<FabMetrics> sMetrics = new ArrayList<FabMetrics>(MAX_METRICS);
+  private static final WeakHashMap<Resources, Lookup> sLookups = new WeakHashMap<Resources, Lookup>();
+
+  final float density;
+
+  final float sizeNormal;
+  final float sizeMini;
+
+  final float iconSize;
+
+  final float plusIconSize;
+  final float plusIconStroke;
+
+  final float shadowOffset;
+  final float shadowRadius;
+
+  final float strokeWidth;
+
+  final float actionsSpacing;
+
+  private FabMetrics(Resources res) {
+    density = res.getDisplayMetrics().density;
+
+    sizeNormal = res.getDimension(R.dimen.fab_size_normal);
+    sizeMini = res.getDimension(R.dimen.fab_size_mini);
+
+    iconSize = res.getDimension(R.dimen.fab_icon_size);
+
+    plusIconSize = res.getDimension(R.dimen.fab_plus_icon_size);
+    plusIconStroke = res.getDimension(R.dimen.fab_plus_icon_stroke);
+
+    shadowOffset = res.getDimension(R.dimen.fab_shadow_offset);
+    shadowRadius = res.getDimension(R.dimen.fab_shadow_radius);
+
+    strokeWidth = res.getDimension(R.dimen.fab_stroke_width);
+
+    actionsSpacing = res.getDimension(R.dimen.fab_actions_spacing);
+  }
+
+  float circleSize(int size) {
+    return size == FloatingActionButton.SIZE_MINI ? sizeMini : sizeNormal;
+  }
+
+  int drawableSize(int size) {
+    return (int) (circleSize(size) + 2 * shadowRadius);
+  }
+
+  RectF circleRect(int size) {
+    float circleSize = circleSize(size);
+    float circleLeft = shadowRadius;
+    float circleTop = shadowRadius - shadowOffset;
+
+    return new RectF(circleLeft, circleTop, circleLeft + circleSize, circleTop + circleSize);
+  }
+
+  private boolean sameValues(FabMetrics other) {
+    return density == other.density
+        && sizeNormal == other.sizeNormal
+        && sizeMini == other.sizeMini
+        && iconSize == other.iconSize
+        && plusIconSize == other.plusIconSize
+        && plusIconStroke == other.plusIconStroke
+        && shadowOffset == other.shadowOffset
+        && shadowRadius == other.shadowRadius
+        && strokeWidth == other.strokeWidth
+        && actionsSpacing == other.actionsSpacing;
+  }
+
+  RectF shadowExtent(int size) {
+    // BlurMaskFilter fades out within about three sigma of the shape, and Skia uses sigma = 0.57735 * radius + 0.5
+    final float blurExtent = 3f * (0.57735f * (shadowRadius - shadowOffset) + 0.5f);
+    final RectF rect = circleRect(size);
+    rect.offset(0f, shadowOffset);
+    rect.inset(-blurExtent, -blurExtent);
+    return rect;
+  }
+
+  static synchronized FabMetrics get(Resources res) {
+    // the dimensions only change with the configuration or density, so only resolve them again when those do
+    final Configuration config = res.getConfiguration();
+    final float density = res.getDisplayMetrics().density;
+    Lookup lookup = sLookups.get(res);
+    if (lookup != null && lookup.mDensity == density && lookup.mConfig.equals(config)) {
+      return lookup.mMetrics;
+    }
+
+    final FabMetrics metrics = share(new FabMetrics(res));
+    if (lookup == null) {
+      lookup = new Lookup();
+      sLookups.put(res, lookup);
+    }
+    lookup.mConfig.setTo(config);
+    lookup.mDensity = density;
+    lookup.mMetrics = metrics;
+    return metrics;
+  }
+
+  private static FabMetrics share(FabMetrics metrics) {
+    for (int i = 0; i < sMetrics.size(); i++) {
+      final FabMetrics existing = sMetrics.get(i);
+      if (existing.sameValues(metrics)) {
+        return existing;
+      }
+    }
+    if (sMetrics.size() == MAX_METRICS) {
+      sMetrics.remove(0);
+    }
+    sMetrics.add(metrics);
+    return metrics;
+  }
+
+  private static class Lookup {
+    final Configuration mConfig = new Configuration();
+    float mDensity;
+    FabMetrics mMetrics;
+  }
+}
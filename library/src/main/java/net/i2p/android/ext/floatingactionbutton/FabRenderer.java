@@ -0,0 +1,379 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BlurMaskFilter;
+import android.graphics.BlurMaskFilter.Blur;
+import android.graphics.Bitmap.Config;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.TypedValue;
+import android.view.Gravity;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+final class FabRenderer {
+  private static final int SHADOW_COLOR = Color.argb(102, 0, 0, 0);
+  private static final int SHADOW_BASE_COLOR = Color.rgb(252, 252, 252);
+  private static final int FLAT_SHADOW_COLOR = Color.argb(48, 0, 0, 0);
+
+  private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+  private static Executor sExecutor;
+
+  private FabRenderer() {
+  }
+
+  private static synchronized Executor getExecutor() {
+    if (sExecutor == null) {
+      sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable r) {
+          Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+              Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+              r.run();
+            }
+          }, "FabRenderer");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return sExecutor;
+  }
+
+  static FabBackgroundCache.Entry getBitmaps(Resources res, FabMetrics metrics, int size, int colorNormal, int colorPressed, boolean render) {
+    final FabBackgroundCache cache = FabBackgroundCache.getInstance();
+    final FabBackgroundCache.Key key = FabBackgroundCache.Key.forBitmaps(metrics, size, colorNormal, colorPressed);
+
+    FabBackgroundCache.Entry entry = cache.get(key);
+    if (entry == null && render) {
+      entry = renderBitmaps(res, metrics, size, colorNormal, colorPressed);
+      cache.put(key, entry);
+    }
+    return entry;
+  }
+
+  static FabMaskDrawable.Masks getMasks(FabMetrics metrics, int size, boolean render) {
+    final FabBackgroundCache cache = FabBackgroundCache.getInstance();
+    final FabBackgroundCache.Key key = FabBackgroundCache.Key.forMasks(metrics, size);
+
+    FabMaskDrawable.Masks masks = cache.getMasks(key);
+    if (masks == null && render) {
+      masks = FabMaskDrawable.createMasks(metrics.drawableSize(size), metrics.circleRect(size), metrics.strokeWidth);
+      cache.putMasks(key, masks);
+    }
+    return masks;
+  }
+
+  static Drawable getShadow(Resources res, FabMetrics metrics, int size, boolean render) {
+    final FabBackgroundCache cache = FabBackgroundCache.getInstance();
+    final FabBackgroundCache.Key key = FabBackgroundCache.Key.forShadow(metrics, size);
+
+    Drawable.ConstantState shadow = cache.getShadow(key);
+    if (shadow == null) {
+      if (!render) {
+        return null;
+      }
+      shadow = createShadowDrawable(res, metrics, size).getConstantState();
+      cache.putShadow(key, shadow);
+    }
+    return shadow.newDrawable(res);
+  }
+
+  static Drawable createFlatShadow(FabMetrics metrics, int size) {
+    final RectF shadowRect = metrics.circleRect(size);
+    shadowRect.offset(0f, metrics.shadowOffset);
+    return new FlatShadowDrawable(metrics.drawableSize(size), shadowRect);
+  }
+
+  static Drawable getIcon(Resources res, FabMetrics metrics, int resId) {
+    final FabBackgroundCache cache = FabBackgroundCache.getInstance();
+    final int iconSize = Math.round(metrics.iconSize);
+    final FabBackgroundCache.IconKey key = new FabBackgroundCache.IconKey(resId, iconSize, metrics.density);
+
+    Drawable.ConstantState icon = cache.getIcon(key);
+    if (icon == null) {
+      final Drawable drawable = decodeIcon(res, resId, iconSize);
+      icon = drawable.getConstantState();
+      if (icon == null) {
+        return drawable;
+      }
+      cache.putIcon(key, icon);
+    }
+    return icon.newDrawable(res).mutate();
+  }
+
+  private static Drawable decodeIcon(Resources res, int resId, int iconSize) {
+    final TypedValue value = new TypedValue();
+    res.getValue(resId, value, true);
+    if (!isBitmapFile(value.string)) {
+      return res.getDrawable(resId);
+    }
+
+    final BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inScaled = false;
+    options.inJustDecodeBounds = true;
+    BitmapFactory.decodeResource(res, resId, options);
+
+    int sampleSize = 1;
+    while (options.outWidth / (sampleSize * 2) >= iconSize && options.outHeight / (sampleSize * 2) >= iconSize) {
+      sampleSize *= 2;
+    }
+
+    options.inJustDecodeBounds = false;
+    options.inSampleSize = sampleSize;
+    Bitmap bitmap = BitmapFactory.decodeResource(res, resId, options);
+    if (bitmap == null) {
+      return res.getDrawable(resId);
+    }
+
+    // fit the longer side to the icon box; the drawable centers the result so non-square icons keep their shape
+    final int width = bitmap.getWidth();
+    final int height = bitmap.getHeight();
+    if (Math.max(width, height) != iconSize) {
+      final float scale = Math.min((float) iconSize / width, (float) iconSize / height);
+      final Bitmap scaled = Bitmap.createScaledBitmap(bitmap,
+          Math.max(1, Math.round(width * scale)), Math.max(1, Math.round(height * scale)), true);
+      if (scaled != bitmap) {
+        bitmap.recycle();
+        bitmap = scaled;
+      }
+    }
+    bitmap.setDensity(res.getDisplayMetrics().densityDpi);
+    FabStats.reportBitmapAllocated(bitmap);
+
+    final BitmapDrawable drawable = new BitmapDrawable(res, bitmap);
+    drawable.setGravity(Gravity.CENTER);
+    return drawable;
+  }
+
+  private static boolean isBitmapFile(CharSequence file) {
+    if (file == null) {
+      return false;
+    }
+    final String name = file.toString();
+    return (name.endsWith(".png") && !name.endsWith(".9.png")) || name.endsWith(".jpg") || name.endsWith(".webp");
+  }
+
+  static void renderAsync(final Resources res, final FabMetrics metrics, final int renderMode, final int size,
+                          final int colorNormal, final int colorPressed, final Callback callback) {
+    getExecutor().execute(new Runnable() {
+      @Override
+      public void run() {
+        final FabBackgroundCache cache = FabBackgroundCache.getInstance();
+        final Result result = new Result();
+
+        final FabBackgroundCache.Key shadowKey = FabBackgroundCache.Key.forShadow(metrics, size);
+        result.mShadow = cache.peekShadow(shadowKey);
+        if (result.mShadow == null) {
+          result.mShadow = createShadowDrawable(res, metrics, size).getConstantState();
+          cache.putShadow(shadowKey, result.mShadow);
+        }
+
+        if (renderMode == FloatingActionButton.RENDER_MODE_BITMAP) {
+          final FabBackgroundCache.Key key = FabBackgroundCache.Key.forBitmaps(metrics, size, colorNormal, colorPressed);
+          result.mBitmaps = cache.peek(key);
+          if (result.mBitmaps == null) {
+            result.mBitmaps = renderBitmaps(res, metrics, size, colorNormal, colorPressed);
+            cache.put(key, result.mBitmaps);
+          }
+        } else if (renderMode == FloatingActionButton.RENDER_MODE_ALPHA_MASK) {
+          final FabBackgroundCache.Key key = FabBackgroundCache.Key.forMasks(metrics, size);
+          result.mMasks = cache.peekMasks(key);
+          if (result.mMasks == null) {
+            result.mMasks = FabMaskDrawable.createMasks(metrics.drawableSize(size), metrics.circleRect(size), metrics.strokeWidth);
+            cache.putMasks(key, result.mMasks);
+          }
+        }
+
+        if (callback != null) {
+          sMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+              callback.onRendered(result);
+            }
+          });
+        }
+      }
+    });
+  }
+
+  private static FabBackgroundCache.Entry renderBitmaps(Resources res, FabMetrics metrics, int size, int colorNormal, int colorPressed) {
+    final int drawableSize = metrics.drawableSize(size);
+    final RectF circleRect = metrics.circleRect(size);
+
+    return new FabBackgroundCache.Entry(
+        createCircleDrawable(res, drawableSize, circleRect, colorNormal).getConstantState(),
+        createCircleDrawable(res, drawableSize, circleRect, colorPressed).getConstantState(),
+        createStrokesDrawable(res, drawableSize, circleRect, metrics.strokeWidth).getConstantState());
+  }
+
+  private static Drawable createShadowDrawable(Resources res, FabMetrics metrics, int size) {
+    final int drawableSize = metrics.drawableSize(size);
+    final RectF circleRect = metrics.circleRect(size);
+
+    final Bitmap bitmap = Bitmap.createBitmap(drawableSize, drawableSize, Config.ARGB_8888);
+    FabStats.reportBitmapAllocated(bitmap);
+    final Canvas canvas = new Canvas(bitmap);
+
+    final RectF shadowRect = new RectF(circleRect);
+    shadowRect.offset(0f, metrics.shadowOffset);
+
+    final Paint paint = new Paint();
+    paint.setAntiAlias(true);
+    paint.setColor(SHADOW_COLOR);
+    paint.setMaskFilter(new BlurMaskFilter(metrics.shadowRadius - metrics.shadowOffset, Blur.NORMAL));
+    canvas.drawOval(shadowRect, paint);
+
+    paint.setMaskFilter(null);
+    paint.setColor(SHADOW_BASE_COLOR);
+    canvas.drawOval(circleRect, paint);
+
+    final BitmapDrawable drawable = new BitmapDrawable(res, bitmap);
+    drawable.setGravity(Gravity.CENTER);
+    return drawable;
+  }
+
+  private static Drawable createCircleDrawable(Resources res, int drawableSize, RectF circleRect, int color) {
+    final Bitmap bitmap = Bitmap.createBitmap(drawableSize, drawableSize, Config.ARGB_8888);
+    FabStats.reportBitmapAllocated(bitmap);
+    final Canvas canvas = new Canvas(bitmap);
+
+    final Paint paint = new Paint();
+    paint.setAntiAlias(true);
+    paint.setColor(color);
+
+    canvas.drawOval(circleRect, paint);
+
+    final BitmapDrawable drawable = new BitmapDrawable(res, bitmap);
+    drawable.setGravity(Gravity.CENTER);
+    return drawable;
+  }
+
+  private static int opacityToAlpha(float opacity) {
+    return (int) (255f * opacity);
+  }
+
+  private static Drawable createStrokesDrawable(Resources res, int drawableSize, RectF circleRect, float strokeWidth) {
+    final Bitmap bitmap = Bitmap.createBitmap(drawableSize, drawableSize, Config.ARGB_8888);
+    FabStats.reportBitmapAllocated(bitmap);
+    final Canvas canvas = new Canvas(bitmap);
+
+    final float halfStrokeWidth = strokeWidth / 2f;
+
+    RectF outerStrokeRect = new RectF(
+        circleRect.left - halfStrokeWidth,
+        circleRect.top - halfStrokeWidth,
+        circleRect.right + halfStrokeWidth,
+        circleRect.bottom + halfStrokeWidth
+    );
+
+    RectF innerStrokeRect = new RectF(
+        circleRect.left + halfStrokeWidth,
+        circleRect.top + halfStrokeWidth,
+        circleRect.right - halfStrokeWidth,
+        circleRect.bottom - halfStrokeWidth
+    );
+
+    final Paint paint = new Paint();
+    paint.setAntiAlias(true);
+    paint.setStrokeWidth(strokeWidth);
+    paint.setStyle(Style.STROKE);
+
+    // outer
+    paint.setColor(Color.BLACK);
+    paint.setAlpha(opacityToAlpha(0.02f));
+    canvas.drawOval(outerStrokeRect, paint);
+
+    // inner bottom
+    paint.setShader(FabBackgroundDrawable.createInnerBottomGradient(innerStrokeRect));
+    paint.setAlpha(opacityToAlpha(0.04f));
+    canvas.drawOval(innerStrokeRect, paint);
+
+    // inner top
+    paint.setShader(FabBackgroundDrawable.createInnerTopGradient(innerStrokeRect));
+    paint.setAlpha(opacityToAlpha(0.8f));
+    canvas.drawOval(innerStrokeRect, paint);
+
+    final BitmapDrawable drawable = new BitmapDrawable(res, bitmap);
+    drawable.setGravity(Gravity.CENTER);
+    return drawable;
+  }
+
+  interface Callback {
+    void onRendered(Result result);
+  }
+
+  static final class Result {
+    Drawable.ConstantState mShadow;
+    FabBackgroundCache.Entry mBitmaps;
+    FabMaskDrawable.Masks mMasks;
+  }
+
+  private static class FlatShadowDrawable extends Drawable {
+    private final int mSize;
+    private final RectF mShadowRect;
+    private final RectF mDrawRect = new RectF();
+    private final Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    FlatShadowDrawable(int size, RectF shadowRect) {
+      mSize = size;
+      mShadowRect = shadowRect;
+      mPaint.setColor(FLAT_SHADOW_COLOR);
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+      mDrawRect.set(mShadowRect);
+      mDrawRect.offset(bounds.left, bounds.top);
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+      canvas.drawOval(mDrawRect, mPaint);
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+      return mSize;
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+      return mSize;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+      mPaint.setAlpha(BaseBackgroundDrawable.modulateAlpha(Color.alpha(FLAT_SHADOW_COLOR), alpha));
+      invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter cf) {
+      mPaint.setColorFilter(cf);
+      invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+      return PixelFormat.TRANSLUCENT;
+    }
+  }
+}
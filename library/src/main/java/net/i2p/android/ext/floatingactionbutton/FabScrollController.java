@@ -0,0 +1,268 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.annotation.SuppressLint;
+import android.os.Build;
+import android.os.Build.VERSION_CODES;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
+import android.view.animation.DecelerateInterpolator;
+import android.widget.AbsListView;
+
+import com.nineoldandroids.animation.ValueAnimator;
+import com.nineoldandroids.animation.ValueAnimator.AnimatorUpdateListener;
+import com.nineoldandroids.view.ViewHelper;
+
+public class FabScrollController {
+  private static final int SETTLE_DURATION = 200;
+  private static final int SETTLE_DELAY = 150;
+
+  private final View mTarget;
+  private final ValueAnimator mAnimator = ValueAnimator.ofFloat(0f, 1f);
+  private float mAnimateFrom;
+  private float mAnimateTo;
+
+  private AbsListView mListView;
+  private AbsListView.OnScrollListener mListDelegate;
+  private int mLastFirstVisibleItem;
+  private int mLastFirstTop;
+  private int mLastLastVisibleItem;
+  private int mLastLastTop;
+
+  private View mScrollView;
+  private int mLastScrollY;
+
+  private int mPendingDy;
+  private boolean mFrameScheduled;
+  private Object mFrameCallback;
+
+  public FabScrollController(View target) {
+    mTarget = target;
+
+    mAnimator.setDuration(SETTLE_DURATION);
+    mAnimator.setInterpolator(new DecelerateInterpolator());
+    mAnimator.addUpdateListener(new AnimatorUpdateListener() {
+      @Override
+      public void onAnimationUpdate(ValueAnimator animation) {
+        final float fraction = animation.getAnimatedFraction();
+        ViewHelper.setTranslationY(mTarget, mAnimateFrom + (mAnimateTo - mAnimateFrom) * fraction);
+      }
+    });
+  }
+
+  public void attachTo(AbsListView listView) {
+    attachTo(listView, null);
+  }
+
+  public void attachTo(AbsListView listView, AbsListView.OnScrollListener delegate) {
+    detach();
+    mListView = listView;
+    mListDelegate = delegate;
+    rememberListRows(listView, listView.getFirstVisiblePosition());
+    listView.setOnScrollListener(mListScrollListener);
+  }
+
+  public void attachTo(View scrollView) {
+    if (scrollView instanceof AbsListView) {
+      attachTo((AbsListView) scrollView);
+      return;
+    }
+
+    detach();
+    mScrollView = scrollView;
+    mLastScrollY = scrollView.getScrollY();
+    scrollView.getViewTreeObserver().addOnScrollChangedListener(mScrollChangedListener);
+  }
+
+  public void detach() {
+    if (mListView != null) {
+      mListView.setOnScrollListener(mListDelegate);
+      mListView = null;
+      mListDelegate = null;
+    }
+    if (mScrollView != null) {
+      final ViewTreeObserver observer = mScrollView.getViewTreeObserver();
+      if (observer.isAlive()) {
+        observer.removeOnScrollChangedListener(mScrollChangedListener);
+      }
+      mTarget.removeCallbacks(mSettle);
+      mScrollView = null;
+    }
+    mPendingDy = 0;
+  }
+
+  public void show() {
+    animateTo(0f);
+  }
+
+  public void hide() {
+    collapseMenu();
+    animateTo(getHiddenOffset());
+  }
+
+  public boolean isHidden() {
+    return ViewHelper.getTranslationY(mTarget) >= getHiddenOffset();
+  }
+
+  private final AbsListView.OnScrollListener mListScrollListener = new AbsListView.OnScrollListener() {
+    @Override
+    public void onScrollStateChanged(AbsListView view, int scrollState) {
+      if (scrollState == SCROLL_STATE_IDLE) {
+        settle();
+      }
+      if (mListDelegate != null) {
+        mListDelegate.onScrollStateChanged(view, scrollState);
+      }
+    }
+
+    @Override
+    public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+      if (view.getChildCount() > 0) {
+        onScrolled(getListScrollDelta(view, firstVisibleItem));
+        rememberListRows(view, firstVisibleItem);
+      }
+      if (mListDelegate != null) {
+        mListDelegate.onScroll(view, firstVisibleItem, visibleItemCount, totalItemCount);
+      }
+    }
+  };
+
+  private int getListScrollDelta(AbsListView view, int firstVisibleItem) {
+    // rows differ in height, so measure how far a row seen last time has moved
+    final int childCount = view.getChildCount();
+    int index = mLastFirstVisibleItem - firstVisibleItem;
+    if (index >= 0 && index < childCount) {
+      return mLastFirstTop - view.getChildAt(index).getTop();
+    }
+    index = mLastLastVisibleItem - firstVisibleItem;
+    if (index >= 0 && index < childCount) {
+      return mLastLastTop - view.getChildAt(index).getTop();
+    }
+
+    // both rows left the screen between callbacks; estimate the gap from the current first row
+    final View firstChild = view.getChildAt(0);
+    return mLastFirstTop - firstChild.getTop() + (firstVisibleItem - mLastFirstVisibleItem) * firstChild.getHeight();
+  }
+
+  private void rememberListRows(AbsListView view, int firstVisibleItem) {
+    final int childCount = view.getChildCount();
+    mLastFirstVisibleItem = firstVisibleItem;
+    mLastFirstTop = childCount > 0 ? view.getChildAt(0).getTop() : 0;
+    mLastLastVisibleItem = firstVisibleItem + childCount - 1;
+    mLastLastTop = childCount > 0 ? view.getChildAt(childCount - 1).getTop() : 0;
+  }
+
+  private final ViewTreeObserver.OnScrollChangedListener mScrollChangedListener = new ViewTreeObserver.OnScrollChangedListener() {
+    @Override
+    public void onScrollChanged() {
+      final int scrollY = mScrollView.getScrollY();
+      if (scrollY != mLastScrollY) {
+        onScrolled(scrollY - mLastScrollY);
+        mLastScrollY = scrollY;
+
+        mTarget.removeCallbacks(mSettle);
+        mTarget.postDelayed(mSettle, SETTLE_DELAY);
+      }
+    }
+  };
+
+  private final Runnable mSettle = new Runnable() {
+    @Override
+    public void run() {
+      settle();
+    }
+  };
+
+  private final Runnable mApplyPending = new Runnable() {
+    @Override
+    public void run() {
+      applyPendingScroll();
+    }
+  };
+
+  private void onScrolled(int dy) {
+    if (dy == 0) {
+      return;
+    }
+    mPendingDy += dy;
+    scheduleFrame();
+  }
+
+  @SuppressLint("NewApi")
+  private void scheduleFrame() {
+    if (mFrameScheduled) {
+      return;
+    }
+    mFrameScheduled = true;
+
+    if (Build.VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN) {
+      if (mFrameCallback == null) {
+        mFrameCallback = new Choreographer.FrameCallback() {
+          @Override
+          public void doFrame(long frameTimeNanos) {
+            applyPendingScroll();
+          }
+        };
+      }
+      Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) mFrameCallback);
+    } else {
+      mTarget.post(mApplyPending);
+    }
+  }
+
+  private void applyPendingScroll() {
+    mFrameScheduled = false;
+
+    final int dy = mPendingDy;
+    mPendingDy = 0;
+    if (dy == 0) {
+      return;
+    }
+
+    mAnimator.cancel();
+
+    final float hiddenOffset = getHiddenOffset();
+    final float translation = ViewHelper.getTranslationY(mTarget);
+    final float updated = Math.max(0f, Math.min(hiddenOffset, translation + dy));
+
+    if (translation == 0f && updated > 0f) {
+      collapseMenu();
+    }
+    if (updated != translation) {
+      ViewHelper.setTranslationY(mTarget, updated);
+    }
+  }
+
+  private void settle() {
+    final float translation = ViewHelper.getTranslationY(mTarget);
+    final float hiddenOffset = getHiddenOffset();
+    if (translation > 0f && translation < hiddenOffset) {
+      animateTo(translation >= hiddenOffset / 2f ? hiddenOffset : 0f);
+    }
+  }
+
+  private void animateTo(float translation) {
+    final float current = ViewHelper.getTranslationY(mTarget);
+    mAnimator.cancel();
+    if (current != translation) {
+      mAnimateFrom = current;
+      mAnimateTo = translation;
+      mAnimator.start();
+    }
+  }
+
+  private void collapseMenu() {
+    if (mTarget instanceof FloatingActionsMenu) {
+      ((FloatingActionsMenu) mTarget).collapse();
+    }
+  }
+
+  private float getHiddenOffset() {
+    final ViewParent parent = mTarget.getParent();
+    if (!(parent instanceof View)) {
+      return mTarget.getHeight();
+    }
+    return ((View) parent).getHeight() - mTarget.getTop();
+  }
+}
@@ -0,0 +1,46 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.graphics.Bitmap;
+
+public final class FabStats {
+  private static volatile Listener sListener;
+
+  private FabStats() {
+  }
+
+  public static void setListener(Listener listener) {
+    sListener = listener;
+  }
+
+  public static Listener getListener() {
+    return sListener;
+  }
+
+  static void reportBitmapAllocated(Bitmap bitmap) {
+    final Listener listener = sListener;
+    if (listener != null) {
+      listener.onBitmapAllocated(bitmap.getRowBytes() * bitmap.getHeight());
+    }
+  }
+
+  /**
+   * onBitmapAllocated() runs on whichever thread allocated the bitmap, which is the background render thread for
+   * asynchronous rendering and prewarm(). The other callbacks run on the UI thread.
+   */
+  public static abstract class Listener {
+    public void onBackgroundRebuilt(FloatingActionButton button, boolean full, long durationNanos) {
+    }
+
+    public void onBitmapAllocated(int bytes) {
+    }
+
+    public void onIconLoaded(FloatingActionButton button, long durationNanos) {
+    }
+
+    public void onMenuLayout(FloatingActionsMenu menu, boolean rewired) {
+    }
+
+    public void onMenuAnimation(FloatingActionsMenu menu, boolean expand, long durationNanos, int frames, int droppedFrames) {
+    }
+  }
+}
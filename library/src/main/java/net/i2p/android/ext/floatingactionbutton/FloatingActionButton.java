@@ -1,28 +1,21 @@
 package net.i2p.android.ext.floatingactionbutton;
 
 import android.annotation.SuppressLint;
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
 import android.content.res.TypedArray;
-import android.graphics.Bitmap;
-import android.graphics.Bitmap.Config;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.LinearGradient;
-import android.graphics.Paint;
-import android.graphics.Paint.Style;
 import android.graphics.RectF;
-import android.graphics.Shader.TileMode;
-import android.graphics.drawable.BitmapDrawable;
-import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
-import android.graphics.drawable.LayerDrawable;
 import android.graphics.drawable.StateListDrawable;
 import android.os.Build;
 import android.os.Build.VERSION_CODES;
 import android.support.annotation.ColorRes;
-import android.support.annotation.DimenRes;
 import android.support.annotation.DrawableRes;
 import android.util.AttributeSet;
+import android.view.ViewTreeObserver;
 import android.widget.ImageButton;
 
 public class FloatingActionButton extends ImageButton {
@@ -30,20 +23,44 @@ public class FloatingActionButton extends ImageButton {
   public static final int SIZE_NORMAL = 0;
   public static final int SIZE_MINI = 1;
 
-  private static final int HALF_TRANSPARENT_WHITE = Color.argb(128, 255, 255, 255);
-  private static final int HALF_TRANSPARENT_BLACK = Color.argb(128, 0, 0, 0);
+  public static final int RENDER_MODE_VECTOR = 0;
+  public static final int RENDER_MODE_BITMAP = 1;
+  public static final int RENDER_MODE_ALPHA_MASK = 2;
+
+  public static final int RENDER_PROFILE_AUTO = 0;
+  public static final int RENDER_PROFILE_FULL = 1;
+  public static final int RENDER_PROFILE_LOW_END = 2;
+
+  static final int CHANGED_COLORS = 1;
+  static final int CHANGED_ICON = 1 << 1;
+  static final int CHANGED_SIZE = 1 << 2;
+
+  private static int sDefaultRenderProfile = RENDER_PROFILE_AUTO;
+  private static Boolean sLowRamDevice;
 
   int mColorNormal;
   int mColorPressed;
   @DrawableRes
   private int mIcon;
   private int mSize;
+  private int mRenderMode;
+  private int mRenderProfile;
+  private boolean mAsyncRendering;
+  private int mRenderGeneration;
 
   private float mCircleSize;
   private float mShadowRadius;
   private float mShadowOffset;
   private int mDrawableSize;
 
+  private FabMetrics mMetrics;
+  private FabCompositeDrawable mBackground;
+  private boolean mBackgroundReleased;
+  private boolean mRepopulatePending;
+  private int mIconInsetHorizontal;
+  private int mIconInsetTop;
+  private int mIconInsetBottom;
+
   public FloatingActionButton(Context context) {
     this(context, null);
   }
@@ -63,24 +80,40 @@ public class FloatingActionButton extends ImageButton {
     mColorPressed = getColor(R.color.default_pressed);
     mIcon = 0;
     mSize = SIZE_NORMAL;
+    mRenderMode = RENDER_MODE_VECTOR;
     if (attributeSet != null) {
       initAttributes(context, attributeSet);
     }
+    onAttributesResolved();
 
-    mCircleSize = getDimension(mSize == SIZE_NORMAL ? R.dimen.fab_size_normal : R.dimen.fab_size_mini);
-    mShadowRadius = getDimension(R.dimen.fab_shadow_radius);
-    mShadowOffset = getDimension(R.dimen.fab_shadow_offset);
-    mDrawableSize = (int) (mCircleSize + 2 * mShadowRadius);
-
+    mMetrics = FabMetrics.get(getResources());
+    updateDimensions();
     updateBackground();
+
+    if (Build.VERSION.SDK_INT >= VERSION_CODES.ICE_CREAM_SANDWICH) {
+      FabMemoryTrimmer.register(context, this);
+    }
+  }
+
+  /**
+   * Called once from init(), after the attribute values are resolved and before the first background is built.
+   */
+  void onAttributesResolved() {
+  }
+
+  private void updateDimensions() {
+    mCircleSize = mMetrics.circleSize(mSize);
+    mShadowRadius = mMetrics.shadowRadius;
+    mShadowOffset = mMetrics.shadowOffset;
+    mDrawableSize = mMetrics.drawableSize(mSize);
   }
 
   int getColor(@ColorRes int id) {
     return getResources().getColor(id);
   }
 
-  float getDimension(@DimenRes int id) {
-    return getResources().getDimension(id);
+  FabMetrics getMetrics() {
+    return mMetrics;
   }
 
   private void initAttributes(Context context, AttributeSet attributeSet) {
@@ -91,12 +124,142 @@ public class FloatingActionButton extends ImageButton {
         mColorPressed = attr.getColor(R.styleable.FloatingActionButton_fab_colorPressed, getColor(R.color.default_pressed));
         mSize = attr.getInt(R.styleable.FloatingActionButton_fab_size, SIZE_NORMAL);
         mIcon = attr.getResourceId(R.styleable.FloatingActionButton_fab_icon, 0);
+        mRenderMode = attr.getInt(R.styleable.FloatingActionButton_fab_renderMode, RENDER_MODE_VECTOR);
+        mRenderProfile = attr.getInt(R.styleable.FloatingActionButton_fab_renderProfile, RENDER_PROFILE_AUTO);
+        mAsyncRendering = attr.getBoolean(R.styleable.FloatingActionButton_fab_asyncRendering, false);
       } finally {
         attr.recycle();
       }
     }
   }
 
+  public int getColorNormal() {
+    return mColorNormal;
+  }
+
+  public void setColorNormal(int color) {
+    edit().setColorNormal(color).apply();
+  }
+
+  public void setColorNormalResId(@ColorRes int colorNormal) {
+    setColorNormal(getColor(colorNormal));
+  }
+
+  public int getColorPressed() {
+    return mColorPressed;
+  }
+
+  public void setColorPressed(int color) {
+    edit().setColorPressed(color).apply();
+  }
+
+  public void setColorPressedResId(@ColorRes int colorPressed) {
+    setColorPressed(getColor(colorPressed));
+  }
+
+  public int getSize() {
+    return mSize;
+  }
+
+  public void setSize(int size) {
+    edit().setSize(size).apply();
+  }
+
+  @DrawableRes
+  public int getIcon() {
+    return mIcon;
+  }
+
+  public void setIcon(@DrawableRes int icon) {
+    edit().setIcon(icon).apply();
+  }
+
+  public Editor edit() {
+    return new Editor();
+  }
+
+  public int getRenderMode() {
+    return mRenderMode;
+  }
+
+  public void setRenderMode(int renderMode) {
+    if (mRenderMode != renderMode) {
+      mRenderMode = renderMode;
+      updateBackground();
+    }
+  }
+
+  public int getRenderProfile() {
+    return mRenderProfile;
+  }
+
+  public void setRenderProfile(int renderProfile) {
+    if (mRenderProfile != renderProfile) {
+      mRenderProfile = renderProfile;
+      if (mBackground != null) {
+        updateBackground();
+      }
+    }
+  }
+
+  public static int getDefaultRenderProfile() {
+    return sDefaultRenderProfile;
+  }
+
+  public static void setDefaultRenderProfile(int renderProfile) {
+    sDefaultRenderProfile = renderProfile;
+  }
+
+  static boolean isLowEndProfile(Context context, int renderProfile) {
+    if (renderProfile == RENDER_PROFILE_AUTO) {
+      renderProfile = sDefaultRenderProfile;
+    }
+    if (renderProfile == RENDER_PROFILE_AUTO) {
+      return isLowRamDevice(context);
+    }
+    return renderProfile == RENDER_PROFILE_LOW_END;
+  }
+
+  @SuppressLint("NewApi")
+  private static boolean isLowRamDevice(Context context) {
+    if (sLowRamDevice == null) {
+      boolean lowRam = false;
+      if (Build.VERSION.SDK_INT >= VERSION_CODES.KITKAT) {
+        final ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        lowRam = activityManager != null && activityManager.isLowRamDevice();
+      }
+      sLowRamDevice = lowRam;
+    }
+    return sLowRamDevice;
+  }
+
+  public boolean isAsyncRendering() {
+    return mAsyncRendering;
+  }
+
+  public void setAsyncRendering(boolean asyncRendering) {
+    mAsyncRendering = asyncRendering;
+  }
+
+  public static void prewarm(Context context, Spec... specs) {
+    final Resources res = context.getResources();
+    final FabMetrics metrics = FabMetrics.get(res);
+    for (Spec spec : specs) {
+      FabRenderer.renderAsync(res, metrics, spec.mRenderMode, spec.mSize, spec.mColorNormal, spec.mColorPressed, null);
+    }
+  }
+
+  @Override
+  protected void onConfigurationChanged(Configuration newConfig) {
+    super.onConfigurationChanged(newConfig);
+
+    final FabMetrics metrics = FabMetrics.get(getResources());
+    if (metrics != mMetrics) {
+      mMetrics = metrics;
+      updateBackground(CHANGED_SIZE);
+    }
+  }
+
   @Override
   protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
     super.onMeasure(widthMeasureSpec, heightMeasureSpec);
@@ -104,112 +267,242 @@ public class FloatingActionButton extends ImageButton {
   }
 
   void updateBackground() {
-    float circleLeft = mShadowRadius;
-    float circleTop = mShadowRadius - mShadowOffset;
+    updateBackground((FabRenderer.Result) null);
+  }
+
+  private void updateBackground(FabRenderer.Result rendered) {
+    final FabStats.Listener stats = FabStats.getListener();
+    final long start = stats != null ? System.nanoTime() : 0;
 
-    final RectF circleRect = new RectF(circleLeft, circleTop, circleLeft + mCircleSize, circleTop + mCircleSize);
+    final RectF circleRect = mMetrics.circleRect(mSize);
 
-    LayerDrawable layerDrawable = new LayerDrawable(
-        new Drawable[] {
-            getResources().getDrawable(mSize == SIZE_NORMAL ? R.drawable.fab_bg_normal : R.drawable.fab_bg_mini),
-            createFillDrawable(circleRect),
-            createStrokesDrawable(circleRect),
-            getIconDrawable()
-        });
+    float iconOffset = (mCircleSize - mMetrics.iconSize) / 2f;
 
-    float iconOffset = (mCircleSize - getDimension(R.dimen.fab_icon_size)) / 2f;
+    mIconInsetHorizontal = (int) (mShadowRadius + iconOffset);
+    mIconInsetTop = (int) (circleRect.top + iconOffset);
+    mIconInsetBottom = (int) (mShadowRadius + mShadowOffset + iconOffset);
 
-    int iconInsetHorizontal = (int) (mShadowRadius + iconOffset);
-    int iconInsetTop = (int) (circleTop + iconOffset);
-    int iconInsetBottom = (int) (mShadowRadius + mShadowOffset + iconOffset);
+    final FabCompositeDrawable background = new FabCompositeDrawable(mDrawableSize, circleRect, mMetrics.shadowExtent(mSize),
+        mMetrics.strokeWidth, mIconInsetHorizontal, mIconInsetTop, mIconInsetBottom);
+    populateBackground(background, circleRect, rendered);
+    background.setIcon(getIconDrawable());
 
-    layerDrawable.setLayerInset(3, iconInsetHorizontal, iconInsetTop, iconInsetHorizontal, iconInsetBottom);
+    mBackground = background;
+    mBackgroundReleased = false;
+    setBackgroundCompat(background);
 
-    setBackgroundCompat(layerDrawable);
+    if (stats != null) {
+      stats.onBackgroundRebuilt(this, true, System.nanoTime() - start);
+    }
   }
 
-  Drawable getIconDrawable() {
-    if (mIcon != 0) {
-      return getResources().getDrawable(mIcon);
+  private void populateBackground(FabCompositeDrawable background, RectF circleRect, FabRenderer.Result rendered) {
+    if (isLowEndProfile(getContext(), mRenderProfile)) {
+      background.setShadow(FabRenderer.createFlatShadow(mMetrics, mSize));
+      background.setFill(new FabBackgroundDrawable(mDrawableSize, circleRect, mMetrics.strokeWidth, mColorNormal, mColorPressed, false));
+      background.setStrokes(null);
+      return;
+    }
+
+    final int generation = mRenderGeneration;
+    final FabBackgroundCache.Entry backgrounds;
+    if (mRenderMode != RENDER_MODE_BITMAP) {
+      backgrounds = null;
+    } else if (rendered != null) {
+      backgrounds = rendered.mBitmaps;
+    } else {
+      backgrounds = getBitmaps();
+    }
+
+    if (backgrounds != null) {
+      background.setFill(createFillDrawable(backgrounds));
+      background.setStrokes(backgrounds.mStrokes.newDrawable(getResources()));
+    } else {
+      background.setFill(createBackgroundDrawable(circleRect, rendered));
+      background.setStrokes(null);
+    }
+
+    final Drawable shadow = rendered != null
+        ? rendered.mShadow.newDrawable(getResources())
+        : FabRenderer.getShadow(getResources(), mMetrics, mSize, !mAsyncRendering);
+    if (shadow != null) {
+      background.setShadow(shadow);
     } else {
-      return new ColorDrawable(Color.TRANSPARENT);
+      // the flat shadow stands in until the blurred one is rendered
+      background.setShadow(FabRenderer.createFlatShadow(mMetrics, mSize));
+      if (generation == mRenderGeneration) {
+        renderAsync();
+      }
     }
   }
 
-  private StateListDrawable createFillDrawable(RectF circleRect) {
-    StateListDrawable drawable = new StateListDrawable();
-    drawable.addState(new int[] { android.R.attr.state_pressed }, createCircleDrawable(circleRect, mColorPressed));
-    drawable.addState(new int[] { }, createCircleDrawable(circleRect, mColorNormal));
-    return drawable;
+  void onTrimMemory(int level) {
+    if (mBackground == null || mBackgroundReleased) {
+      return;
+    }
+
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN || isBackgroundHidden()) {
+      mBackground.setShadow(null);
+      mBackground.setFill(null);
+      mBackground.setStrokes(null);
+      mBackgroundReleased = true;
+      if (getWindowToken() != null) {
+        addRepopulateListener();
+      }
+    }
   }
 
-  private Drawable createCircleDrawable(RectF circleRect, int color) {
-    final Bitmap bitmap = Bitmap.createBitmap(mDrawableSize, mDrawableSize, Config.ARGB_8888);
-    final Canvas canvas = new Canvas(bitmap);
+  private boolean isBackgroundHidden() {
+    return getWindowToken() == null
+        || !isShown()
+        || (getParent() instanceof FloatingActionsMenu && ((FloatingActionsMenu) getParent()).isActionCollapsed(this));
+  }
 
-    final Paint paint = new Paint();
-    paint.setAntiAlias(true);
-    paint.setColor(color);
+  private final ViewTreeObserver.OnPreDrawListener mRepopulateListener = new ViewTreeObserver.OnPreDrawListener() {
+    @Override
+    public boolean onPreDraw() {
+      if (mBackgroundReleased && isBackgroundHidden()) {
+        return true;
+      }
 
-    canvas.drawOval(circleRect, paint);
+      removeRepopulateListener();
+      if (mBackgroundReleased) {
+        // before the traversal draws, so the invalidations below are part of this frame
+        mBackgroundReleased = false;
+        populateBackground(mBackground, mMetrics.circleRect(mSize), null);
+      }
+      return true;
+    }
+  };
 
-    return new BitmapDrawable(getResources(), bitmap);
+  private void addRepopulateListener() {
+    if (!mRepopulatePending) {
+      mRepopulatePending = true;
+      getViewTreeObserver().addOnPreDrawListener(mRepopulateListener);
+    }
   }
 
-  private int opacityToAlpha(float opacity) {
-    return (int) (255f * opacity);
+  private void removeRepopulateListener() {
+    if (mRepopulatePending) {
+      mRepopulatePending = false;
+      getViewTreeObserver().removeOnPreDrawListener(mRepopulateListener);
+    }
   }
 
-  private Drawable createStrokesDrawable(RectF circleRect) {
-    final Bitmap bitmap = Bitmap.createBitmap(mDrawableSize, mDrawableSize, Config.ARGB_8888);
-    final Canvas canvas = new Canvas(bitmap);
+  @Override
+  protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    if (mBackgroundReleased) {
+      addRepopulateListener();
+    }
+  }
 
-    final float strokeWidth = getDimension(R.dimen.fab_stroke_width);
-    final float halfStrokeWidth = strokeWidth / 2f;
+  @Override
+  protected void onDetachedFromWindow() {
+    removeRepopulateListener();
+    super.onDetachedFromWindow();
+  }
+
+  void updateBackground(int changes) {
+    if (mBackground == null || mBackgroundReleased || (changes & CHANGED_SIZE) != 0) {
+      updateDimensions();
+      updateBackground();
+      requestLayout();
+      return;
+    }
 
-    RectF outerStrokeRect = new RectF(
-        circleRect.left - halfStrokeWidth,
-        circleRect.top - halfStrokeWidth,
-        circleRect.right + halfStrokeWidth,
-        circleRect.bottom + halfStrokeWidth
-    );
+    final FabStats.Listener stats = FabStats.getListener();
+    final long start = stats != null ? System.nanoTime() : 0;
+
+    if ((changes & CHANGED_COLORS) != 0) {
+      if (mBackground.getFill() instanceof StateListDrawable) {
+        final FabBackgroundCache.Entry backgrounds = getBitmaps();
+        if (backgrounds != null) {
+          mBackground.setFill(createFillDrawable(backgrounds));
+        } else {
+          updateBackground();
+          return;
+        }
+      } else {
+        ((BaseBackgroundDrawable) mBackground.getFill()).setColors(mColorNormal, mColorPressed);
+      }
+    }
 
-    RectF innerStrokeRect = new RectF(
-        circleRect.left + halfStrokeWidth,
-        circleRect.top + halfStrokeWidth,
-        circleRect.right - halfStrokeWidth,
-        circleRect.bottom - halfStrokeWidth
-    );
+    if ((changes & CHANGED_ICON) != 0) {
+      mBackground.setIcon(getIconDrawable());
+    }
 
-    final Paint paint = new Paint();
-    paint.setAntiAlias(true);
-    paint.setStrokeWidth(strokeWidth);
-    paint.setStyle(Style.STROKE);
+    if (stats != null) {
+      stats.onBackgroundRebuilt(this, false, System.nanoTime() - start);
+    }
+  }
+
+  private Drawable createBackgroundDrawable(RectF circleRect, FabRenderer.Result rendered) {
+    if (mRenderMode == RENDER_MODE_ALPHA_MASK) {
+      final FabMaskDrawable.Masks masks = rendered != null
+          ? rendered.mMasks
+          : FabRenderer.getMasks(mMetrics, mSize, !mAsyncRendering);
+      if (masks != null) {
+        return new FabMaskDrawable(mDrawableSize, masks, mColorNormal, mColorPressed);
+      }
+      renderAsync();
+    }
+    return new FabBackgroundDrawable(mDrawableSize, circleRect, mMetrics.strokeWidth, mColorNormal, mColorPressed, true);
+  }
+
+  private FabBackgroundCache.Entry getBitmaps() {
+    final FabBackgroundCache.Entry backgrounds = FabRenderer.getBitmaps(getResources(), mMetrics, mSize, mColorNormal, mColorPressed, !mAsyncRendering);
+    if (backgrounds == null) {
+      renderAsync();
+    }
+    return backgrounds;
+  }
+
+  private void renderAsync() {
+    final int generation = ++mRenderGeneration;
+    final FabMetrics metrics = mMetrics;
+    final int renderMode = mRenderMode;
+    final int size = mSize;
+    final int colorNormal = mColorNormal;
+    final int colorPressed = mColorPressed;
+
+    FabRenderer.renderAsync(getResources(), metrics, renderMode, size, colorNormal, colorPressed, new FabRenderer.Callback() {
+      @Override
+      public void onRendered(FabRenderer.Result result) {
+        if (generation != mRenderGeneration) {
+          return;
+        }
+        if (metrics == mMetrics && renderMode == mRenderMode && size == mSize
+            && colorNormal == mColorNormal && colorPressed == mColorPressed) {
+          updateBackground(result);
+        } else {
+          updateBackground();
+        }
+      }
+    });
+  }
 
-    // outer
-    paint.setColor(Color.BLACK);
-    paint.setAlpha(opacityToAlpha(0.02f));
-    canvas.drawOval(outerStrokeRect, paint);
+  Drawable getIconDrawable() {
+    if (mIcon != 0) {
+      final FabStats.Listener stats = FabStats.getListener();
+      final long start = stats != null ? System.nanoTime() : 0;
 
-    // inner bottom
-    paint.setShader(new LinearGradient(innerStrokeRect.centerX(), innerStrokeRect.top, innerStrokeRect.centerX(), innerStrokeRect.bottom,
-        new int[] { Color.TRANSPARENT, HALF_TRANSPARENT_BLACK, Color.BLACK },
-        new float[] { 0f, 0.8f, 1f },
-        TileMode.CLAMP
-    ));
-    paint.setAlpha(opacityToAlpha(0.04f));
-    canvas.drawOval(innerStrokeRect, paint);
+      final Drawable icon = FabRenderer.getIcon(getResources(), mMetrics, mIcon);
 
-    // inner top
-    paint.setShader(new LinearGradient(innerStrokeRect.centerX(), innerStrokeRect.top, innerStrokeRect.centerX(), innerStrokeRect.bottom,
-        new int[] { Color.WHITE, HALF_TRANSPARENT_WHITE, Color.TRANSPARENT },
-        new float[] { 0f, 0.2f, 1f },
-        TileMode.CLAMP
-    ));
-    paint.setAlpha(opacityToAlpha(0.8f));
-    canvas.drawOval(innerStrokeRect, paint);
+      if (stats != null) {
+        stats.onIconLoaded(this, System.nanoTime() - start);
+      }
+      return icon;
+    } else {
+      return null;
+    }
+  }
 
-    return new BitmapDrawable(getResources(), bitmap);
+  private StateListDrawable createFillDrawable(FabBackgroundCache.Entry backgrounds) {
+    StateListDrawable drawable = new StateListDrawable();
+    drawable.addState(new int[] { android.R.attr.state_pressed }, backgrounds.mPressed.newDrawable(getResources()));
+    drawable.addState(new int[] { }, backgrounds.mNormal.newDrawable(getResources()));
+    return drawable;
   }
 
   @SuppressWarnings("deprecation")
@@ -221,4 +514,84 @@ public class FloatingActionButton extends ImageButton {
       setBackgroundDrawable(drawable);
     }
   }
+
+  public class Editor {
+    private int mNewColorNormal = mColorNormal;
+    private int mNewColorPressed = mColorPressed;
+    private int mNewSize = mSize;
+    private int mNewIcon = mIcon;
+
+    Editor() {
+    }
+
+    public Editor setColorNormal(int color) {
+      mNewColorNormal = color;
+      return this;
+    }
+
+    public Editor setColorNormalResId(@ColorRes int colorNormal) {
+      return setColorNormal(getColor(colorNormal));
+    }
+
+    public Editor setColorPressed(int color) {
+      mNewColorPressed = color;
+      return this;
+    }
+
+    public Editor setColorPressedResId(@ColorRes int colorPressed) {
+      return setColorPressed(getColor(colorPressed));
+    }
+
+    public Editor setSize(int size) {
+      if (size != SIZE_NORMAL && size != SIZE_MINI) {
+        throw new IllegalArgumentException("Use SIZE_NORMAL or SIZE_MINI");
+      }
+
+      mNewSize = size;
+      return this;
+    }
+
+    public Editor setIcon(@DrawableRes int icon) {
+      mNewIcon = icon;
+      return this;
+    }
+
+    public void apply() {
+      commit(0);
+    }
+
+    void commit(int changes) {
+      if (mColorNormal != mNewColorNormal || mColorPressed != mNewColorPressed) {
+        mColorNormal = mNewColorNormal;
+        mColorPressed = mNewColorPressed;
+        changes |= CHANGED_COLORS;
+      }
+      if (mSize != mNewSize) {
+        mSize = mNewSize;
+        changes |= CHANGED_SIZE;
+      }
+      if (mIcon != mNewIcon) {
+        mIcon = mNewIcon;
+        changes |= CHANGED_ICON;
+      }
+
+      if (changes != 0) {
+        updateBackground(changes);
+      }
+    }
+  }
+
+  public static class Spec {
+    final int mSize;
+    final int mColorNormal;
+    final int mColorPressed;
+    final int mRenderMode;
+
+    public Spec(int size, int colorNormal, int colorPressed, int renderMode) {
+      mSize = size;
+      mColorNormal = colorNormal;
+      mColorPressed = colorPressed;
+      mRenderMode = renderMode;
+    }
+  }
 }
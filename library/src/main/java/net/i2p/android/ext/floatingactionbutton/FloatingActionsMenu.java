@@ -1,48 +1,130 @@
 package net.i2p.android.ext.floatingactionbutton;
 
+import android.annotation.SuppressLint;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
-import android.graphics.Canvas;
-import android.graphics.drawable.Drawable;
-import android.graphics.drawable.LayerDrawable;
+import android.database.DataSetObservable;
+import android.database.DataSetObserver;
+import android.os.Build;
+import android.os.Build.VERSION_CODES;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.support.annotation.ColorRes;
+import android.support.annotation.DrawableRes;
 import android.support.annotation.NonNull;
 import android.util.AttributeSet;
+import android.view.Display;
+import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewConfiguration;
 import android.view.ViewGroup;
+import android.view.WindowManager;
 import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
 import android.view.animation.OvershootInterpolator;
 
-import com.nineoldandroids.animation.AnimatorSet;
-import com.nineoldandroids.animation.ObjectAnimator;
+import com.nineoldandroids.animation.Animator;
+import com.nineoldandroids.animation.AnimatorListenerAdapter;
+import com.nineoldandroids.animation.ValueAnimator;
+import com.nineoldandroids.animation.ValueAnimator.AnimatorUpdateListener;
 import com.nineoldandroids.view.ViewHelper;
 
+import java.util.ArrayList;
+
 public class FloatingActionsMenu extends ViewGroup {
   public static final int EXPAND_UP = 0;
   public static final int EXPAND_DOWN = 1;
   public static final int EXPAND_LEFT = 2;
   public static final int EXPAND_RIGHT = 3;
 
+  public static final int ANIMATION_LAYERS_NONE = 0;
+  public static final int ANIMATION_LAYERS_HARDWARE = 1;
+
   private static final int ANIMATION_DURATION = 300;
   private static final float COLLAPSED_PLUS_ROTATION = 0f;
   private static final float EXPANDED_PLUS_ROTATION = 90f + 45f;
+  private static final float DEFAULT_REFRESH_RATE = 60f;
+  private static final int STAGGER_STALL_SLACK = 1000;
+  private static final int SCROLL_SETTLE_DURATION = 150;
 
   private int mAddButtonPlusColor;
   private int mAddButtonColorNormal;
   private int mAddButtonColorPressed;
   private int mExpandDirection;
+  private int mAnimationLayers;
+  private int mExpandStaggerDelay;
+  private int mRenderProfile;
+  private boolean mLowEnd;
 
   private int mButtonSpacing;
 
   private boolean mExpanded;
 
-  private AnimatorSet mExpandAnimation = new AnimatorSet().setDuration(ANIMATION_DURATION);
-  private AnimatorSet mCollapseAnimation = new AnimatorSet().setDuration(ANIMATION_DURATION);
+  private final ValueAnimator mAnimation = ValueAnimator.ofFloat(0f, 1f).setDuration(ANIMATION_DURATION);
+  private boolean mAnimatingExpand;
+
+  private long mAnimationStartNanos;
+  private int mAnimationFrames;
+  private FrameMonitor mFrameMonitor;
+  private boolean mFrameMonitorRunning;
+
+  private boolean mStaggering;
+  private int mReleasedCount;
+  private long[] mReleaseTimes = new long[0];
+  private int mStaggerDroppedFrames;
+  private long mFrameIntervalNanos;
+  private long mStaggerStep;
+
+  private View[] mLayeredActions = new View[0];
+  private int mLayeredActionCount;
+
+  private View[] mActions = new View[0];
+  private float[] mCollapsedTranslations = new float[0];
+  private int[] mLaidOutWidths = new int[0];
+  private int[] mLaidOutHeights = new int[0];
+  private int mActionCount;
+
+  private boolean mMeasureDirty = true;
+  private int mLastWidthMeasureSpec;
+  private int mLastHeightMeasureSpec;
+  private int mLastChildCount;
+  private int mLastMeasuredWidth;
+  private int mLastMeasuredHeight;
+
+  private boolean mLayoutDirty = true;
+  private int mLaidOutWidth;
+  private int mLaidOutHeight;
+  private int mLaidOutExpandDirection;
+
+  private OnHierarchyChangeListener mOnHierarchyChangeListener;
+
+  private Adapter mAdapter;
+  private boolean mAdapterDirty;
+  private FloatingActionButton[] mAdapterButtons = new FloatingActionButton[0];
+  private long[] mAdapterIds = new long[0];
+  private FloatingActionButton[] mSyncButtons = new FloatingActionButton[0];
+  private long[] mSyncIds = new long[0];
+  private int mAdapterButtonCount;
+  private final ArrayList<FloatingActionButton> mRecycledButtons = new ArrayList<FloatingActionButton>();
+  private OnActionClickListener mOnActionClickListener;
+
+  private int mMaxVisibleActions;
+  private int mOverflowOffset;
+  private int mTouchSlop;
+  private float mLastTouchX;
+  private float mLastTouchY;
+  private float mTouchTravel;
+  private float mScrollRemainder;
+  private int mScrollStep;
+  private boolean mScrolling;
+  private boolean mStripTouch;
+  private final ValueAnimator mScrollSettle = ValueAnimator.ofFloat(1f, 0f);
+  private float mScrollSettleFrom;
+
   private AddFloatingActionButton mAddButton;
-  private RotatingDrawable mRotatingDrawable;
+  private PlusDrawable mPlusDrawable;
 
   public FloatingActionsMenu(Context context) {
     this(context, null);
@@ -64,7 +146,9 @@ public class FloatingActionsMenu extends ViewGroup {
     mAddButtonColorPressed = getColor(R.color.default_pressed);
     mExpandDirection = EXPAND_UP;
 
-    mButtonSpacing = (int) (getResources().getDimension(R.dimen.fab_actions_spacing) - getResources().getDimension(R.dimen.fab_shadow_radius) - getResources().getDimension(R.dimen.fab_shadow_offset));
+    mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+
+    updateButtonSpacing();
 
     if (attributeSet != null) {
       TypedArray attr = context.obtainStyledAttributes(attributeSet, R.styleable.FloatingActionsMenu, 0, 0);
@@ -74,69 +158,96 @@ public class FloatingActionsMenu extends ViewGroup {
           mAddButtonColorNormal = attr.getColor(R.styleable.FloatingActionsMenu_fab_addButtonColorNormal, getColor(R.color.default_normal));
           mAddButtonColorPressed = attr.getColor(R.styleable.FloatingActionsMenu_fab_addButtonColorPressed, getColor(R.color.default_pressed));
           mExpandDirection = attr.getInt(R.styleable.FloatingActionsMenu_fab_expandDirection, EXPAND_UP);
+          mAnimationLayers = attr.getInt(R.styleable.FloatingActionsMenu_fab_animationLayers, ANIMATION_LAYERS_NONE);
+          mExpandStaggerDelay = attr.getInt(R.styleable.FloatingActionsMenu_fab_expandStaggerDelay, 0);
+          mRenderProfile = attr.getInt(R.styleable.FloatingActionsMenu_fab_renderProfile, FloatingActionButton.RENDER_PROFILE_AUTO);
+          mMaxVisibleActions = attr.getInt(R.styleable.FloatingActionsMenu_fab_maxVisibleActions, 0);
         } finally {
           attr.recycle();
         }
       }
     }
 
-    createAddButton(context);
-  }
+    mLowEnd = FloatingActionButton.isLowEndProfile(context, mRenderProfile);
 
-  private static class RotatingDrawable extends LayerDrawable {
-    public RotatingDrawable(Drawable drawable) {
-      super(new Drawable[] { drawable });
-    }
+    super.setOnHierarchyChangeListener(mActionsTracker);
 
-    private float mRotation;
+    mAnimation.setInterpolator(new LinearInterpolator());
+    mAnimation.addUpdateListener(new AnimatorUpdateListener() {
+      @Override
+      public void onAnimationUpdate(ValueAnimator animation) {
+        mAnimationFrames++;
+        if (mStaggering) {
+          final long playTime = animation.getCurrentPlayTime();
+          releaseNextAction(playTime);
+          applyStaggeredFrame(playTime);
+          if (isStaggerSettled(playTime)) {
+            finishStagger();
+            mAnimation.end();
+          }
+        } else {
+          applyAnimationFraction(animation.getAnimatedFraction());
+        }
+      }
+    });
+    mAnimation.addListener(new AnimatorListenerAdapter() {
+      @Override
+      public void onAnimationStart(Animator animation) {
+        startAnimationStats();
+        buildAnimationLayers();
+      }
 
-    @SuppressWarnings("UnusedDeclaration")
-    public float getRotation() {
-      return mRotation;
-    }
+      @Override
+      public void onAnimationEnd(Animator animation) {
+        finishStagger();
+        destroyAnimationLayers();
+        finishAnimationStats();
+      }
+    });
 
-    @SuppressWarnings("UnusedDeclaration")
-    public void setRotation(float rotation) {
-      mRotation = rotation;
-      invalidateSelf();
-    }
+    mScrollSettle.setDuration(SCROLL_SETTLE_DURATION);
+    mScrollSettle.setInterpolator(new DecelerateInterpolator());
+    mScrollSettle.addUpdateListener(new AnimatorUpdateListener() {
+      @Override
+      public void onAnimationUpdate(ValueAnimator animation) {
+        mScrollRemainder = mScrollSettleFrom * (Float) animation.getAnimatedValue();
+        applyScrollOffset();
+      }
+    });
 
-    @Override
-    public void draw(Canvas canvas) {
-      canvas.save();
-      canvas.rotate(mRotation, getBounds().centerX(), getBounds().centerY());
-      super.draw(canvas);
-      canvas.restore();
-    }
+    createAddButton(context);
+  }
+
+  private void updateButtonSpacing() {
+    final FabMetrics metrics = FabMetrics.get(getResources());
+    mButtonSpacing = (int) (metrics.actionsSpacing - metrics.shadowRadius - metrics.shadowOffset);
+    mMeasureDirty = true;
+    mLayoutDirty = true;
+  }
+
+  @Override
+  protected void onConfigurationChanged(Configuration newConfig) {
+    super.onConfigurationChanged(newConfig);
+    updateButtonSpacing();
+    requestLayout();
   }
 
   private void createAddButton(Context context) {
     mAddButton = new AddFloatingActionButton(context) {
       @Override
-      void updateBackground() {
+      void onAttributesResolved() {
         mPlusColor = mAddButtonPlusColor;
         mColorNormal = mAddButtonColorNormal;
         mColorPressed = mAddButtonColorPressed;
-        super.updateBackground();
+        setRenderProfile(mRenderProfile);
       }
 
       @Override
-      Drawable getIconDrawable() {
-        final RotatingDrawable rotatingDrawable = new RotatingDrawable(super.getIconDrawable());
-        mRotatingDrawable = rotatingDrawable;
-
-        final OvershootInterpolator interpolator = new OvershootInterpolator();
-
-        final ObjectAnimator collapseAnimator = ObjectAnimator.ofFloat(rotatingDrawable, "rotation", EXPANDED_PLUS_ROTATION, COLLAPSED_PLUS_ROTATION);
-        final ObjectAnimator expandAnimator = ObjectAnimator.ofFloat(rotatingDrawable, "rotation", COLLAPSED_PLUS_ROTATION, EXPANDED_PLUS_ROTATION);
-
-        collapseAnimator.setInterpolator(interpolator);
-        expandAnimator.setInterpolator(interpolator);
-
-        mExpandAnimation.play(expandAnimator);
-        mCollapseAnimation.play(collapseAnimator);
-
-        return rotatingDrawable;
+      PlusDrawable getIconDrawable() {
+        final PlusDrawable plusDrawable = super.getIconDrawable();
+        plusDrawable.setRotation(mExpanded ? EXPANDED_PLUS_ROTATION : COLLAPSED_PLUS_ROTATION);
+        mPlusDrawable = plusDrawable;
+        return plusDrawable;
       }
     };
 
@@ -157,12 +268,31 @@ public class FloatingActionsMenu extends ViewGroup {
 
   @Override
   protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-    measureChildren(widthMeasureSpec, heightMeasureSpec);
+    final int childCount = getChildCount();
+    final boolean specsChanged = mMeasureDirty
+        || widthMeasureSpec != mLastWidthMeasureSpec
+        || heightMeasureSpec != mLastHeightMeasureSpec
+        || childCount != mLastChildCount;
+
+    boolean childrenChanged = false;
+    for (int i = 0; i < childCount; i++) {
+      final View child = getChildAt(i);
+      if (child.getVisibility() != GONE && (specsChanged || child.isLayoutRequested())) {
+        measureChild(child, widthMeasureSpec, heightMeasureSpec);
+        childrenChanged = true;
+      }
+    }
+
+    if (!specsChanged && !childrenChanged) {
+      setMeasuredDimension(mLastMeasuredWidth, mLastMeasuredHeight);
+      return;
+    }
 
     int width = 0;
     int height = 0;
+    int actionsExtent = 0;
 
-    for (int i = 0; i < getChildCount(); i++) {
+    for (int i = 0; i < childCount; i++) {
       View child = getChildAt(i);
 
       switch (mExpandDirection) {
@@ -170,31 +300,63 @@ public class FloatingActionsMenu extends ViewGroup {
         case EXPAND_DOWN:
           width = Math.max(width, child.getMeasuredWidth());
           height += child.getMeasuredHeight();
+          if (child != mAddButton) {
+            actionsExtent += child.getMeasuredHeight() + mButtonSpacing;
+          }
           break;
         case EXPAND_LEFT:
         case EXPAND_RIGHT:
           width += child.getMeasuredWidth();
           height = Math.max(height, child.getMeasuredHeight());
+          if (child != mAddButton) {
+            actionsExtent += child.getMeasuredWidth() + mButtonSpacing;
+          }
       }
     }
 
+    // the farthest action travels actionsExtent and overshoots it by the interpolator's peak
+    final int overshoot = mLowEnd ? 0 : (int) Math.ceil(actionsExtent * sExpandOvershoot);
+
     switch (mExpandDirection) {
       case EXPAND_UP:
       case EXPAND_DOWN:
-        height += mButtonSpacing * (getChildCount() - 1);
-        height = height * 12 / 10; // for overshoot
+        height += mButtonSpacing * (childCount - 1);
+        height += overshoot;
         break;
       case EXPAND_LEFT:
       case EXPAND_RIGHT:
-        width += mButtonSpacing * (getChildCount() - 1);
-        width = width * 12 / 10; // for overshoot
+        width += mButtonSpacing * (childCount - 1);
+        width += overshoot;
     }
 
+    mMeasureDirty = false;
+    mLastWidthMeasureSpec = widthMeasureSpec;
+    mLastHeightMeasureSpec = heightMeasureSpec;
+    mLastChildCount = childCount;
+    mLastMeasuredWidth = width;
+    mLastMeasuredHeight = height;
+
     setMeasuredDimension(width, height);
   }
 
+  static float overshootPeak(float tension) {
+    // OvershootInterpolator is (t - 1)^2 * ((tension + 1) * (t - 1) + tension) + 1,
+    // which peaks where t - 1 = -2 * tension / (3 * (tension + 1))
+    final float u = -2f * tension / (3f * (tension + 1f));
+    return u * u * tension / 3f;
+  }
+
   @Override
   protected void onLayout(boolean changed, int l, int t, int r, int b) {
+    final FabStats.Listener stats = FabStats.getListener();
+
+    if (!needsLayout(r - l, b - t)) {
+      if (stats != null) {
+        stats.onMenuLayout(this, false);
+      }
+      return;
+    }
+
     switch (mExpandDirection) {
       case EXPAND_UP:
       case EXPAND_DOWN:
@@ -207,25 +369,16 @@ public class FloatingActionsMenu extends ViewGroup {
             addButtonY - mButtonSpacing :
             addButtonY + mAddButton.getMeasuredHeight() + mButtonSpacing;
 
-        for (int i = getChildCount() - 1; i >= 0; i--) {
-          final View child = getChildAt(i);
-
-          if (child == mAddButton) continue;
+        for (int i = mActionCount - 1; i >= 0; i--) {
+          final View child = mActions[i];
 
           int childX = (mAddButton.getMeasuredWidth() - child.getMeasuredWidth()) / 2;
           int childY = expandUp ? nextY - child.getMeasuredHeight() : nextY;
           child.layout(childX, childY, childX + child.getMeasuredWidth(), childY + child.getMeasuredHeight());
 
-          float collapsedTranslation = addButtonY - childY;
-          float expandedTranslation = 0f;
-
-          ViewHelper.setTranslationY(child, mExpanded ? expandedTranslation : collapsedTranslation);
-          ViewHelper.setAlpha(child, mExpanded ? 1f : 0f);
-
-          LayoutParams params = (LayoutParams) child.getLayoutParams();
-          params.mCollapseDir.setFloatValues(expandedTranslation, collapsedTranslation);
-          params.mExpandDir.setFloatValues(collapsedTranslation, expandedTranslation);
-          params.setAnimationsTarget(child);
+          mCollapsedTranslations[i] = addButtonY - childY;
+          mLaidOutWidths[i] = child.getMeasuredWidth();
+          mLaidOutHeights[i] = child.getMeasuredHeight();
 
           nextY = expandUp ?
               childY - mButtonSpacing :
@@ -244,102 +397,341 @@ public class FloatingActionsMenu extends ViewGroup {
             addButtonX - mButtonSpacing :
             addButtonX + mAddButton.getMeasuredWidth() + mButtonSpacing;
 
-        for (int i = getChildCount() - 1; i >= 0; i--) {
-          final View child = getChildAt(i);
-
-          if (child == mAddButton) continue;
+        for (int i = mActionCount - 1; i >= 0; i--) {
+          final View child = mActions[i];
 
           int childX = expandLeft ? nextX - child.getMeasuredWidth() : nextX;
           int childY = (mAddButton.getMeasuredHeight() - child.getMeasuredHeight()) / 2;
           child.layout(childX, childY, childX + child.getMeasuredWidth(), childY + child.getMeasuredHeight());
 
-          float collapsedTranslation = addButtonX - childX;
-          float expandedTranslation = 0f;
-
-          ViewHelper.setTranslationX(child, mExpanded ? expandedTranslation : collapsedTranslation);
-          ViewHelper.setAlpha(child, mExpanded ? 1f : 0f);
-
-          LayoutParams params = (LayoutParams) child.getLayoutParams();
-          params.mCollapseDir.setFloatValues(expandedTranslation, collapsedTranslation);
-          params.mExpandDir.setFloatValues(collapsedTranslation, expandedTranslation);
-          params.setAnimationsTarget(child);
+          mCollapsedTranslations[i] = addButtonX - childX;
+          mLaidOutWidths[i] = child.getMeasuredWidth();
+          mLaidOutHeights[i] = child.getMeasuredHeight();
 
           nextX = expandLeft ?
               childX - mButtonSpacing :
               childX + child.getMeasuredWidth() + mButtonSpacing;
         }
     }
+
+    mLayoutDirty = false;
+    mLaidOutWidth = r - l;
+    mLaidOutHeight = b - t;
+    mLaidOutExpandDirection = mExpandDirection;
+
+    if (stats != null) {
+      stats.onMenuLayout(this, true);
+    }
+
+    if (mAnimation.isRunning() && mStaggering) {
+      applyStaggeredFrame(mAnimation.getCurrentPlayTime());
+    } else if (mAnimation.isRunning()) {
+      applyAnimationFraction(mAnimation.getAnimatedFraction());
+    } else {
+      applyAnimationFraction(1f);
+    }
   }
 
-  @Override
-  protected ViewGroup.LayoutParams generateDefaultLayoutParams() {
-    return new LayoutParams(super.generateDefaultLayoutParams());
+  private boolean needsLayout(int width, int height) {
+    if (mLayoutDirty
+        || width != mLaidOutWidth
+        || height != mLaidOutHeight
+        || mExpandDirection != mLaidOutExpandDirection
+        || mAddButton.isLayoutRequested()) {
+      return true;
+    }
+
+    for (int i = 0; i < mActionCount; i++) {
+      final View action = mActions[i];
+      if (action.isLayoutRequested()
+          || action.getMeasuredWidth() != mLaidOutWidths[i]
+          || action.getMeasuredHeight() != mLaidOutHeights[i]) {
+        return true;
+      }
+    }
+    return false;
   }
 
-  @Override
-  public ViewGroup.LayoutParams generateLayoutParams(AttributeSet attrs) {
-    return new LayoutParams(super.generateLayoutParams(attrs));
+  private void registerAction(View child) {
+    if (mStaggering) {
+      mAnimation.end();
+    }
+
+    int index = 0;
+    for (int i = indexOfChild(child) - 1; i >= 0; i--) {
+      if (getChildAt(i) != mAddButton) {
+        index++;
+      }
+    }
+
+    if (mActionCount == mActions.length) {
+      final int capacity = Math.max(4, mActionCount * 2);
+
+      final View[] actions = new View[capacity];
+      System.arraycopy(mActions, 0, actions, 0, mActionCount);
+      mActions = actions;
+
+      final float[] collapsedTranslations = new float[capacity];
+      System.arraycopy(mCollapsedTranslations, 0, collapsedTranslations, 0, mActionCount);
+      mCollapsedTranslations = collapsedTranslations;
+
+      mLaidOutWidths = new int[capacity];
+      mLaidOutHeights = new int[capacity];
+    }
+
+    System.arraycopy(mActions, index, mActions, index + 1, mActionCount - index);
+    System.arraycopy(mCollapsedTranslations, index, mCollapsedTranslations, index + 1, mActionCount - index);
+    mActions[index] = child;
+    mCollapsedTranslations[index] = 0f;
+    mActionCount++;
+    mLayoutDirty = true;
+
+    if (mRenderProfile != FloatingActionButton.RENDER_PROFILE_AUTO && child instanceof FloatingActionButton) {
+      ((FloatingActionButton) child).setRenderProfile(mRenderProfile);
+    }
   }
 
-  @Override
-  protected ViewGroup.LayoutParams generateLayoutParams(ViewGroup.LayoutParams p) {
-    return new LayoutParams(super.generateLayoutParams(p));
+  int getActionCount() {
+    return mActionCount;
+  }
+
+  View[] getActions() {
+    return mActions;
+  }
+
+  private void unregisterAction(View child) {
+    if (mStaggering) {
+      mAnimation.end();
+    }
+
+    for (int i = 0; i < mActionCount; i++) {
+      if (mActions[i] == child) {
+        System.arraycopy(mActions, i + 1, mActions, i, mActionCount - i - 1);
+        System.arraycopy(mCollapsedTranslations, i + 1, mCollapsedTranslations, i, mActionCount - i - 1);
+        mActionCount--;
+        mActions[mActionCount] = null;
+        mLayoutDirty = true;
+
+        ViewHelper.setTranslationX(child, 0f);
+        ViewHelper.setTranslationY(child, 0f);
+        ViewHelper.setAlpha(child, 1f);
+        removeAnimationLayer(child);
+        return;
+      }
+    }
+  }
+
+  @SuppressLint("NewApi")
+  private void removeAnimationLayer(View child) {
+    for (int i = 0; i < mLayeredActionCount; i++) {
+      if (mLayeredActions[i] == child) {
+        child.setLayerType(LAYER_TYPE_NONE, null);
+        mLayeredActionCount--;
+        mLayeredActions[i] = mLayeredActions[mLayeredActionCount];
+        mLayeredActions[mLayeredActionCount] = null;
+        return;
+      }
+    }
   }
 
   @Override
-  protected boolean checkLayoutParams(ViewGroup.LayoutParams p) {
-    return super.checkLayoutParams(p);
+  public void setOnHierarchyChangeListener(OnHierarchyChangeListener listener) {
+    mOnHierarchyChangeListener = listener;
   }
 
-  private static Interpolator sExpandInterpolator = new OvershootInterpolator();
-  private static Interpolator sCollapseInterpolator = new DecelerateInterpolator(3f);
-  private static Interpolator sAlphaExpandInterpolator = new DecelerateInterpolator();
+  private final OnHierarchyChangeListener mActionsTracker = new OnHierarchyChangeListener() {
+    @Override
+    public void onChildViewAdded(View parent, View child) {
+      if (child != mAddButton) {
+        registerAction(child);
+      }
+      if (mOnHierarchyChangeListener != null) {
+        mOnHierarchyChangeListener.onChildViewAdded(parent, child);
+      }
+    }
 
-  private class LayoutParams extends ViewGroup.LayoutParams {
+    @Override
+    public void onChildViewRemoved(View parent, View child) {
+      if (child != mAddButton) {
+        unregisterAction(child);
+      }
+      if (mOnHierarchyChangeListener != null) {
+        mOnHierarchyChangeListener.onChildViewRemoved(parent, child);
+      }
+    }
+  };
 
-    private ObjectAnimator mExpandDir = new ObjectAnimator();
-    private ObjectAnimator mExpandAlpha = new ObjectAnimator();
-    private ObjectAnimator mCollapseDir = new ObjectAnimator();
-    private ObjectAnimator mCollapseAlpha = new ObjectAnimator();
+  void applyAnimationFraction(float fraction) {
+    applyAnimationFraction(fraction, mAnimation.isRunning() ? mAnimatingExpand : mExpanded);
+  }
 
-    public LayoutParams(ViewGroup.LayoutParams source) {
-      super(source);
+  private void applyAnimationFraction(float fraction, boolean expanding) {
+    final Interpolators interpolators = getInterpolators();
+    final float translationFraction;
+    final float alpha;
+    final float rotation;
+    if (mLowEnd) {
+      final float interpolated = (expanding ? interpolators.mLowEndExpand : interpolators.mCollapse).getInterpolation(fraction);
+      translationFraction = expanding ? 1f - interpolated : interpolated;
+      alpha = expanding ? interpolated : 1f - interpolated;
+      rotation = expanding ? EXPANDED_PLUS_ROTATION : COLLAPSED_PLUS_ROTATION;
+    } else if (expanding) {
+      translationFraction = 1f - interpolators.mExpand.getInterpolation(fraction);
+      alpha = interpolators.mAlphaExpand.getInterpolation(fraction);
+      rotation = COLLAPSED_PLUS_ROTATION + (EXPANDED_PLUS_ROTATION - COLLAPSED_PLUS_ROTATION) * interpolators.mRotation.getInterpolation(fraction);
+    } else {
+      final float collapseFraction = interpolators.mCollapse.getInterpolation(fraction);
+      translationFraction = collapseFraction;
+      alpha = 1f - collapseFraction;
+      rotation = EXPANDED_PLUS_ROTATION + (COLLAPSED_PLUS_ROTATION - EXPANDED_PLUS_ROTATION) * interpolators.mRotation.getInterpolation(fraction);
+    }
 
-      mExpandDir.setInterpolator(sExpandInterpolator);
-      mExpandAlpha.setInterpolator(sAlphaExpandInterpolator);
-      mCollapseDir.setInterpolator(sCollapseInterpolator);
-      mCollapseAlpha.setInterpolator(sCollapseInterpolator);
+    final boolean vertical = mExpandDirection == EXPAND_UP || mExpandDirection == EXPAND_DOWN;
+    final float scrollOffset = mExpandDirection == EXPAND_UP || mExpandDirection == EXPAND_LEFT
+        ? mScrollRemainder
+        : -mScrollRemainder;
+    for (int i = 0; i < mActionCount; i++) {
+      final View action = mActions[i];
+      final float translation = mCollapsedTranslations[i] * translationFraction + scrollOffset;
+
+      if (vertical) {
+        ViewHelper.setTranslationY(action, translation);
+      } else {
+        ViewHelper.setTranslationX(action, translation);
+      }
+      ViewHelper.setAlpha(action, alpha);
+    }
 
-      mCollapseAlpha.setPropertyName("alpha");
-      mCollapseAlpha.setFloatValues(1f, 0f);
+    if (mPlusDrawable != null) {
+      mPlusDrawable.setRotation(rotation);
+    }
+  }
 
-      mExpandAlpha.setPropertyName("alpha");
-      mExpandAlpha.setFloatValues(0f, 1f);
+  private void applyStaggeredFrame(long playTime) {
+    final boolean vertical = mExpandDirection == EXPAND_UP || mExpandDirection == EXPAND_DOWN;
+    final Interpolators interpolators = getInterpolators();
+    final Interpolator translationInterpolator = mLowEnd ? interpolators.mLowEndExpand : interpolators.mExpand;
+    for (int order = 0; order < mActionCount; order++) {
+      final int i = mActionCount - 1 - order;
+      // actions not released yet wait collapsed and transparent; their visibility stays the app's
+      final float fraction = order < mReleasedCount
+          ? Math.min(1f, (playTime - mReleaseTimes[order]) / (float) ANIMATION_DURATION)
+          : 0f;
+      final View action = mActions[i];
+      final float translation = mCollapsedTranslations[i] * (1f - translationInterpolator.getInterpolation(fraction));
+
+      if (vertical) {
+        ViewHelper.setTranslationY(action, translation);
+      } else {
+        ViewHelper.setTranslationX(action, translation);
+      }
+      ViewHelper.setAlpha(action, interpolators.mAlphaExpand.getInterpolation(fraction));
+    }
 
-      switch (mExpandDirection) {
-        case EXPAND_UP:
-        case EXPAND_DOWN:
-          mCollapseDir.setPropertyName("translationY");
-          mExpandDir.setPropertyName("translationY");
-          break;
-        case EXPAND_LEFT:
-        case EXPAND_RIGHT:
-          mCollapseDir.setPropertyName("translationX");
-          mExpandDir.setPropertyName("translationX");
+    if (mPlusDrawable != null) {
+      if (mLowEnd) {
+        mPlusDrawable.setRotation(EXPANDED_PLUS_ROTATION);
+      } else {
+        final float fraction = Math.min(1f, playTime / (float) ANIMATION_DURATION);
+        mPlusDrawable.setRotation(COLLAPSED_PLUS_ROTATION
+            + (EXPANDED_PLUS_ROTATION - COLLAPSED_PLUS_ROTATION) * interpolators.mRotation.getInterpolation(fraction));
       }
+    }
+  }
+
+  private void releaseNextAction(long playTime) {
+    boolean janky = false;
+    if (mFrameMonitorRunning) {
+      final int droppedFrames = mFrameMonitor.getDroppedFrames();
+      janky = droppedFrames != mStaggerDroppedFrames;
+      mStaggerDroppedFrames = droppedFrames;
+    }
+
+    if (mReleasedCount >= mActionCount) {
+      return;
+    }
+
+    final long scheduled = (long) mReleasedCount * mExpandStaggerDelay;
+    if (playTime < scheduled || (janky && playTime < scheduled + mExpandStaggerDelay)) {
+      return;
+    }
+
+    addAnimationLayer(mActions[mActionCount - 1 - mReleasedCount]);
+    mReleaseTimes[mReleasedCount++] = playTime;
+
+    // a late release still gets its full slide before the animator ends
+    final long end = playTime + ANIMATION_DURATION
+        + (mActionCount - mReleasedCount) * mStaggerStep;
+    if (end > mAnimation.getDuration()) {
+      mAnimation.setDuration(end);
+    }
+  }
+
+  private boolean isStaggerSettled(long playTime) {
+    return mReleasedCount == mActionCount && playTime - mReleaseTimes[mReleasedCount - 1] >= ANIMATION_DURATION;
+  }
+
+  private void prepareStagger() {
+    if (mReleaseTimes.length < mActionCount) {
+      mReleaseTimes = new long[mActions.length];
+    }
+
+    mReleasedCount = 0;
+    mStaggerDroppedFrames = 0;
+    applyStaggeredFrame(0L);
+  }
+
+  private void finishStagger() {
+    if (!mStaggering) {
+      return;
+    }
+    mStaggering = false;
+    applyAnimationFraction(1f, true);
+  }
 
-      mExpandAnimation.play(mExpandAlpha);
-      mExpandAnimation.play(mExpandDir);
+  private static final float EXPAND_OVERSHOOT_TENSION = 2f;
 
-      mCollapseAnimation.play(mCollapseAlpha);
-      mCollapseAnimation.play(mCollapseDir);
+  private static float sExpandOvershoot = overshootPeak(EXPAND_OVERSHOOT_TENSION);
+  private static final Interpolators sAnalyticInterpolators = new Interpolators(false);
+  private static Interpolators sLookupTableInterpolators;
+  private static boolean sUseLookupTables;
+
+  /**
+   * Makes every menu evaluate its animation curves from shared lookup tables instead of the analytic interpolators.
+   * The tables are off by default.
+   */
+  public static void setUseInterpolatorLookupTables(boolean useLookupTables) {
+    if (useLookupTables && sLookupTableInterpolators == null) {
+      sLookupTableInterpolators = new Interpolators(true);
     }
+    sUseLookupTables = useLookupTables;
+  }
+
+  public static boolean isUsingInterpolatorLookupTables() {
+    return sUseLookupTables;
+  }
+
+  private static Interpolators getInterpolators() {
+    return sUseLookupTables ? sLookupTableInterpolators : sAnalyticInterpolators;
+  }
 
-    public void setAnimationsTarget(View view) {
-      mCollapseAlpha.setTarget(view);
-      mCollapseDir.setTarget(view);
-      mExpandAlpha.setTarget(view);
-      mExpandDir.setTarget(view);
+  static final class Interpolators {
+    final Interpolator mExpand;
+    final Interpolator mLowEndExpand;
+    final Interpolator mCollapse;
+    final Interpolator mAlphaExpand;
+    final Interpolator mRotation;
+
+    Interpolators(boolean lookupTables) {
+      mExpand = create(new OvershootInterpolator(EXPAND_OVERSHOOT_TENSION), lookupTables);
+      mLowEndExpand = create(new DecelerateInterpolator(2f), lookupTables);
+      mCollapse = create(new DecelerateInterpolator(3f), lookupTables);
+      mAlphaExpand = create(new DecelerateInterpolator(), lookupTables);
+      mRotation = create(new OvershootInterpolator(), lookupTables);
+    }
+
+    private static Interpolator create(Interpolator interpolator, boolean lookupTable) {
+      return lookupTable ? new LookupTableInterpolator(interpolator) : interpolator;
     }
   }
 
@@ -349,11 +741,17 @@ public class FloatingActionsMenu extends ViewGroup {
     bringChildToFront(mAddButton);
   }
 
+  boolean isActionCollapsed(View child) {
+    return child != mAddButton && !mExpanded && !mAnimation.isRunning();
+  }
+
   public void collapse() {
     if (mExpanded) {
       mExpanded = false;
-      mCollapseAnimation.start();
-      mExpandAnimation.cancel();
+      mScrolling = false;
+      mScrollSettle.cancel();
+      mScrollRemainder = 0f;
+      startAnimation(false);
     }
   }
 
@@ -368,9 +766,539 @@ public class FloatingActionsMenu extends ViewGroup {
   public void expand() {
     if (!mExpanded) {
       mExpanded = true;
-      mCollapseAnimation.cancel();
-      mExpandAnimation.start();
+      syncAdapterButtons();
+      startAnimation(true);
+    }
+  }
+
+  /**
+   * Jumps a running expand or collapse animation to its end state.
+   */
+  void endAnimation() {
+    mAnimation.end();
+  }
+
+  public Adapter getAdapter() {
+    return mAdapter;
+  }
+
+  public void setAdapter(Adapter adapter) {
+    if (mAdapter == adapter) {
+      return;
+    }
+
+    if (mAdapter != null) {
+      mAdapter.unregisterDataSetObserver(mAdapterObserver);
+    }
+
+    mAdapter = adapter;
+    mAdapterDirty = true;
+
+    if (adapter != null) {
+      adapter.registerDataSetObserver(mAdapterObserver);
+      if (mExpanded || mAdapterButtonCount > 0) {
+        syncAdapterButtons();
+      }
+    } else {
+      removeAdapterButtons();
+      mRecycledButtons.clear();
+      mAdapterDirty = false;
+    }
+  }
+
+  public int getMaxVisibleActions() {
+    return mMaxVisibleActions;
+  }
+
+  public void setMaxVisibleActions(int maxVisibleActions) {
+    if (mMaxVisibleActions != maxVisibleActions) {
+      mMaxVisibleActions = maxVisibleActions;
+      mAdapterDirty = true;
+      if (mExpanded || mAdapterButtonCount > 0) {
+        syncAdapterButtons();
+      }
+    }
+  }
+
+  public void scrollActions(int positions) {
+    if (positions == 0 || !isOverflowing()) {
+      return;
+    }
+
+    final int maxOffset = mAdapter.getCount() - mMaxVisibleActions;
+    final int offset = Math.max(0, Math.min(mOverflowOffset + positions, maxOffset));
+    if (offset != mOverflowOffset) {
+      mOverflowOffset = offset;
+      mAdapterDirty = true;
+      syncAdapterButtons();
+    }
+  }
+
+  private boolean isOverflowing() {
+    return mAdapter != null && mMaxVisibleActions > 0 && mAdapter.getCount() > mMaxVisibleActions;
+  }
+
+  @Override
+  public boolean onInterceptTouchEvent(MotionEvent ev) {
+    if (!mExpanded || !isOverflowing()) {
+      return false;
+    }
+
+    handleScrollTouch(ev);
+    return mScrolling;
+  }
+
+  @Override
+  public boolean onTouchEvent(MotionEvent ev) {
+    if (!mExpanded || !isOverflowing()) {
+      return super.onTouchEvent(ev);
+    }
+
+    handleScrollTouch(ev);
+    // only a gesture that started on the actions is ours; elsewhere the menu stays transparent to touches
+    return mStripTouch || super.onTouchEvent(ev);
+  }
+
+  private void handleScrollTouch(MotionEvent ev) {
+    switch (ev.getAction() & MotionEvent.ACTION_MASK) {
+      case MotionEvent.ACTION_DOWN:
+        startTouch(ev);
+        break;
+      case MotionEvent.ACTION_MOVE:
+        if (mStripTouch) {
+          trackTouch(ev);
+        }
+        break;
+      case MotionEvent.ACTION_UP:
+      case MotionEvent.ACTION_CANCEL:
+        if (mScrolling) {
+          settleScroll();
+        }
+        mScrolling = false;
+        break;
+    }
+  }
+
+  private void startTouch(MotionEvent ev) {
+    mLastTouchX = ev.getX();
+    mLastTouchY = ev.getY();
+    mTouchTravel = 0f;
+    mScrolling = false;
+    mStripTouch = isOnActionStrip((int) ev.getX(), (int) ev.getY());
+    if (mStripTouch) {
+      mScrollSettle.cancel();
+    }
+  }
+
+  private boolean isOnActionStrip(int x, int y) {
+    int left = Integer.MAX_VALUE;
+    int top = Integer.MAX_VALUE;
+    int right = Integer.MIN_VALUE;
+    int bottom = Integer.MIN_VALUE;
+    for (int i = 0; i < mActionCount; i++) {
+      final View action = mActions[i];
+      if (action.getVisibility() == GONE) {
+        continue;
+      }
+      left = Math.min(left, action.getLeft());
+      top = Math.min(top, action.getTop());
+      right = Math.max(right, action.getRight());
+      bottom = Math.max(bottom, action.getBottom());
+    }
+    return x >= left && x < right && y >= top && y < bottom;
+  }
+
+  private void trackTouch(MotionEvent ev) {
+    final float dx = ev.getX() - mLastTouchX;
+    final float dy = ev.getY() - mLastTouchY;
+    mLastTouchX = ev.getX();
+    mLastTouchY = ev.getY();
+
+    // moving toward the add button reveals the actions beyond the far edge
+    final float towardsAddButton;
+    switch (mExpandDirection) {
+      case EXPAND_UP:
+        towardsAddButton = dy;
+        break;
+      case EXPAND_DOWN:
+        towardsAddButton = -dy;
+        break;
+      case EXPAND_LEFT:
+        towardsAddButton = dx;
+        break;
+      default:
+        towardsAddButton = -dx;
+    }
+
+    float travel = towardsAddButton;
+    if (!mScrolling) {
+      mTouchTravel += towardsAddButton;
+      if (Math.abs(mTouchTravel) <= mTouchSlop) {
+        return;
+      }
+      mScrolling = true;
+      requestDisallowInterceptTouchEvent(true);
+      // start from where the finger left the slop so the actions don't jump
+      travel = mTouchTravel - Math.signum(mTouchTravel) * mTouchSlop;
+    }
+
+    if (mActionCount == 0) {
+      return;
+    }
+
+    final View nearest = mActions[mActionCount - 1];
+    final boolean vertical = mExpandDirection == EXPAND_UP || mExpandDirection == EXPAND_DOWN;
+    mScrollStep = (vertical ? nearest.getMeasuredHeight() : nearest.getMeasuredWidth()) + mButtonSpacing;
+    if (mScrollStep <= 0) {
+      return;
+    }
+
+    // the actions follow the finger; whole steps move the window and the rest stays as a translation
+    mScrollRemainder += travel;
+    shiftScrollWindow((int) (mScrollRemainder / mScrollStep));
+    applyScrollOffset();
+  }
+
+  private void shiftScrollWindow(int positions) {
+    if (positions != 0) {
+      final int offset = mOverflowOffset;
+      scrollActions(positions);
+      mScrollRemainder -= (mOverflowOffset - offset) * mScrollStep;
+    }
+
+    if ((mScrollRemainder > 0f && mOverflowOffset >= mAdapter.getCount() - mMaxVisibleActions)
+        || (mScrollRemainder < 0f && mOverflowOffset <= 0)) {
+      mScrollRemainder = 0f;
+    }
+  }
+
+  private void settleScroll() {
+    if (mScrollStep > 0 && Math.abs(mScrollRemainder) >= mScrollStep / 2f) {
+      shiftScrollWindow(mScrollRemainder > 0f ? 1 : -1);
+      applyScrollOffset();
     }
+    if (mScrollRemainder != 0f) {
+      mScrollSettleFrom = mScrollRemainder;
+      mScrollSettle.start();
+    }
+  }
+
+  private void applyScrollOffset() {
+    if (!mAnimation.isRunning()) {
+      applyAnimationFraction(1f);
+    }
+  }
+
+  public void setOnActionClickListener(OnActionClickListener listener) {
+    mOnActionClickListener = listener;
+  }
+
+  private final DataSetObserver mAdapterObserver = new DataSetObserver() {
+    @Override
+    public void onChanged() {
+      mAdapterDirty = true;
+      if (mExpanded || mAdapterButtonCount > 0) {
+        syncAdapterButtons();
+      }
+    }
+
+    @Override
+    public void onInvalidated() {
+      onChanged();
+    }
+  };
+
+  private void syncAdapterButtons() {
+    if (!mAdapterDirty || mAdapter == null) {
+      return;
+    }
+    mAdapterDirty = false;
+
+    final int total = mAdapter.getCount();
+    int count = total;
+    int first = 0;
+    if (mMaxVisibleActions > 0 && total > mMaxVisibleActions) {
+      count = mMaxVisibleActions;
+      mOverflowOffset = Math.max(0, Math.min(mOverflowOffset, total - count));
+      first = total - count - mOverflowOffset;
+    } else {
+      mOverflowOffset = 0;
+      mScrollSettle.cancel();
+      mScrollRemainder = 0f;
+    }
+
+    if (mSyncButtons.length < count) {
+      mSyncButtons = new FloatingActionButton[count];
+      mSyncIds = new long[count];
+    }
+    final FloatingActionButton[] buttons = mSyncButtons;
+    final long[] ids = mSyncIds;
+
+    for (int position = 0; position < count; position++) {
+      final Action action = mAdapter.getAction(first + position);
+
+      FloatingActionButton button = null;
+      for (int i = 0; i < mAdapterButtonCount; i++) {
+        if (mAdapterButtons[i] != null && mAdapterIds[i] == action.mId) {
+          button = mAdapterButtons[i];
+          mAdapterButtons[i] = null;
+          break;
+        }
+      }
+      if (button == null) {
+        button = obtainAdapterButton();
+      }
+
+      button.edit()
+          .setIcon(action.mIcon)
+          .setColorNormal(action.mColorNormal)
+          .setColorPressed(action.mColorPressed)
+          .setSize(action.mSize)
+          .apply();
+
+      buttons[position] = button;
+      ids[position] = action.mId;
+    }
+
+    // buttons that left the window go first; the previous arrays are then all null and become the scratch pair
+    removeAdapterButtons();
+    mSyncButtons = mAdapterButtons;
+    mSyncIds = mAdapterIds;
+    mAdapterButtons = buttons;
+    mAdapterIds = ids;
+    mAdapterButtonCount = count;
+
+    // kept buttons stay attached in order, so new ones are inserted around them without moving them
+    int index = -1;
+    for (int position = 0; position < count && index < 0; position++) {
+      if (buttons[position].getParent() == this) {
+        index = indexOfChild(buttons[position]);
+      }
+    }
+    if (index < 0) {
+      final int childCount = getChildCount();
+      index = indexOfChild(mAddButton) == childCount - 1 ? childCount - 1 : childCount;
+    }
+
+    for (int position = 0; position < count; position++, index++) {
+      final FloatingActionButton button = buttons[position];
+      if (button.getParent() == this) {
+        if (indexOfChild(button) == index) {
+          continue;
+        }
+        removeView(button);
+      }
+      addView(button, index);
+    }
+  }
+
+  private FloatingActionButton obtainAdapterButton() {
+    final int recycled = mRecycledButtons.size();
+    if (recycled > 0) {
+      return mRecycledButtons.remove(recycled - 1);
+    }
+
+    final FloatingActionButton button = new FloatingActionButton(getContext()) {
+      @Override
+      void onAttributesResolved() {
+        setRenderProfile(mRenderProfile);
+      }
+    };
+    button.setOnClickListener(mAdapterButtonClickListener);
+    return button;
+  }
+
+  private void removeAdapterButtons() {
+    for (int i = 0; i < mAdapterButtonCount; i++) {
+      final FloatingActionButton button = mAdapterButtons[i];
+      if (button != null) {
+        removeView(button);
+        mRecycledButtons.add(button);
+        mAdapterButtons[i] = null;
+      }
+    }
+    mAdapterButtonCount = 0;
+  }
+
+  private final OnClickListener mAdapterButtonClickListener = new OnClickListener() {
+    @Override
+    public void onClick(View v) {
+      if (mOnActionClickListener == null) {
+        return;
+      }
+      for (int i = 0; i < mAdapterButtonCount; i++) {
+        if (mAdapterButtons[i] == v) {
+          mOnActionClickListener.onActionClick(FloatingActionsMenu.this, mAdapterIds[i]);
+          return;
+        }
+      }
+    }
+  };
+
+  public int getExpandDirection() {
+    return mExpandDirection;
+  }
+
+  public void setExpandDirection(int expandDirection) {
+    if (mExpandDirection != expandDirection) {
+      mExpandDirection = expandDirection;
+      mMeasureDirty = true;
+      requestLayout();
+    }
+  }
+
+  public int getAnimationLayers() {
+    return mAnimationLayers;
+  }
+
+  public void setAnimationLayers(int animationLayers) {
+    mAnimationLayers = animationLayers;
+  }
+
+  public int getRenderProfile() {
+    return mRenderProfile;
+  }
+
+  public void setRenderProfile(int renderProfile) {
+    if (mRenderProfile == renderProfile) {
+      return;
+    }
+
+    mRenderProfile = renderProfile;
+    mLowEnd = FloatingActionButton.isLowEndProfile(getContext(), renderProfile);
+    mMeasureDirty = true;
+
+    mAddButton.setRenderProfile(renderProfile);
+    for (int i = 0; i < mActionCount; i++) {
+      if (mActions[i] instanceof FloatingActionButton) {
+        ((FloatingActionButton) mActions[i]).setRenderProfile(renderProfile);
+      }
+    }
+    for (FloatingActionButton button : mRecycledButtons) {
+      button.setRenderProfile(renderProfile);
+    }
+
+    if (!mAnimation.isRunning()) {
+      applyAnimationFraction(1f);
+    }
+    requestLayout();
+  }
+
+  public int getExpandStaggerDelay() {
+    return mExpandStaggerDelay;
+  }
+
+  public void setExpandStaggerDelay(int expandStaggerDelay) {
+    mExpandStaggerDelay = expandStaggerDelay;
+  }
+
+  private void buildAnimationLayers() {
+    if (mStaggering) {
+      return;
+    }
+
+    for (int i = 0; i < mActionCount; i++) {
+      addAnimationLayer(mActions[i]);
+    }
+  }
+
+  @SuppressLint("NewApi")
+  private void addAnimationLayer(View action) {
+    if (mAnimationLayers != ANIMATION_LAYERS_HARDWARE || Build.VERSION.SDK_INT < VERSION_CODES.HONEYCOMB) {
+      return;
+    }
+
+    if (mLayeredActions.length < mActionCount) {
+      mLayeredActions = new View[mActions.length];
+    }
+
+    if (action.getLayerType() == LAYER_TYPE_NONE) {
+      action.setLayerType(LAYER_TYPE_HARDWARE, null);
+      mLayeredActions[mLayeredActionCount++] = action;
+    }
+  }
+
+  @SuppressLint("NewApi")
+  private void destroyAnimationLayers() {
+    for (int i = 0; i < mLayeredActionCount; i++) {
+      mLayeredActions[i].setLayerType(LAYER_TYPE_NONE, null);
+      mLayeredActions[i] = null;
+    }
+    mLayeredActionCount = 0;
+  }
+
+  @SuppressLint("NewApi")
+  private void startAnimationStats() {
+    mAnimationFrames = 0;
+    mAnimationStartNanos = 0;
+    final boolean stats = FabStats.getListener() != null;
+    if (stats) {
+      mAnimationStartNanos = System.nanoTime();
+    }
+    if ((stats || mStaggering) && Build.VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN) {
+      if (mFrameMonitor == null) {
+        mFrameMonitor = new FrameMonitor();
+      }
+      mFrameMonitor.start(mFrameIntervalNanos);
+      mFrameMonitorRunning = true;
+    }
+  }
+
+  @SuppressLint("NewApi")
+  private void finishAnimationStats() {
+    final boolean monitored = mFrameMonitorRunning;
+    if (monitored) {
+      mFrameMonitor.stop();
+      mFrameMonitorRunning = false;
+    }
+
+    if (mAnimationStartNanos == 0) {
+      return;
+    }
+
+    final long duration = System.nanoTime() - mAnimationStartNanos;
+    mAnimationStartNanos = 0;
+
+    int frames = mAnimationFrames;
+    int droppedFrames = -1;
+    if (monitored) {
+      frames = mFrameMonitor.getFrames();
+      droppedFrames = mFrameMonitor.getDroppedFrames();
+    }
+
+    final FabStats.Listener stats = FabStats.getListener();
+    if (stats != null) {
+      stats.onMenuAnimation(this, mAnimatingExpand, duration, frames, droppedFrames);
+    }
+  }
+
+  private void startAnimation(boolean expand) {
+    mAnimation.cancel();
+    mAnimatingExpand = expand;
+
+    mFrameIntervalNanos = (long) (1000000000L / getRefreshRate());
+    mStaggering = expand && mExpandStaggerDelay > 0 && mActionCount > 1;
+    if (mStaggering) {
+      // actions are released at most one per frame, so a step is never shorter than the display's frame interval
+      mStaggerStep = Math.max(mExpandStaggerDelay, (mFrameIntervalNanos + 999999L) / 1000000L);
+      prepareStagger();
+      // only an upper bound: the stagger ends the animator once the last action has landed
+      mAnimation.setDuration(ANIMATION_DURATION + mActionCount * mStaggerStep + STAGGER_STALL_SLACK);
+    } else {
+      mAnimation.setDuration(ANIMATION_DURATION);
+    }
+    mAnimation.start();
+  }
+
+  @SuppressLint("NewApi")
+  private float getRefreshRate() {
+    Display display = Build.VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN_MR1 ? getDisplay() : null;
+    if (display == null) {
+      final WindowManager windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+      display = windowManager != null ? windowManager.getDefaultDisplay() : null;
+    }
+    final float refreshRate = display != null ? display.getRefreshRate() : 0f;
+    return refreshRate > 0f ? refreshRate : DEFAULT_REFRESH_RATE;
   }
 
   @Override
@@ -388,16 +1316,60 @@ public class FloatingActionsMenu extends ViewGroup {
       SavedState savedState = (SavedState) state;
       mExpanded = savedState.mExpanded;
 
-      if (mRotatingDrawable != null) {
-        mRotatingDrawable.setRotation(mExpanded ? EXPANDED_PLUS_ROTATION : COLLAPSED_PLUS_ROTATION);
+      if (mExpanded) {
+        syncAdapterButtons();
       }
 
+      mAnimation.cancel();
+      applyAnimationFraction(1f);
+
       super.onRestoreInstanceState(savedState.getSuperState());
     } else {
       super.onRestoreInstanceState(state);
     }
   }
 
+  public interface OnActionClickListener {
+    void onActionClick(FloatingActionsMenu menu, long id);
+  }
+
+  public static class Action {
+    final long mId;
+    @DrawableRes
+    final int mIcon;
+    final int mColorNormal;
+    final int mColorPressed;
+    final int mSize;
+
+    public Action(long id, @DrawableRes int icon, int colorNormal, int colorPressed, int size) {
+      mId = id;
+      mIcon = icon;
+      mColorNormal = colorNormal;
+      mColorPressed = colorPressed;
+      mSize = size;
+    }
+  }
+
+  public static abstract class Adapter {
+    private final DataSetObservable mDataSetObservable = new DataSetObservable();
+
+    public abstract int getCount();
+
+    public abstract Action getAction(int position);
+
+    public void notifyDataSetChanged() {
+      mDataSetObservable.notifyChanged();
+    }
+
+    void registerDataSetObserver(DataSetObserver observer) {
+      mDataSetObservable.registerObserver(observer);
+    }
+
+    void unregisterDataSetObserver(DataSetObserver observer) {
+      mDataSetObservable.unregisterObserver(observer);
+    }
+  }
+
   public static class SavedState extends BaseSavedState {
     public boolean mExpanded;
 
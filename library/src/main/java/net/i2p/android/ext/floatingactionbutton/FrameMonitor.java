@@ -0,0 +1,54 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.annotation.TargetApi;
+import android.os.Build.VERSION_CODES;
+import android.view.Choreographer;
+
+@TargetApi(VERSION_CODES.JELLY_BEAN)
+class FrameMonitor implements Choreographer.FrameCallback {
+  private boolean mRunning;
+  private long mFrameIntervalNanos;
+  private long mLastFrameTimeNanos;
+  private int mFrames;
+  private int mDroppedFrames;
+
+  void start(long frameIntervalNanos) {
+    mFrameIntervalNanos = frameIntervalNanos;
+    mRunning = true;
+    mLastFrameTimeNanos = 0;
+    mFrames = 0;
+    mDroppedFrames = 0;
+    Choreographer.getInstance().postFrameCallback(this);
+  }
+
+  void stop() {
+    mRunning = false;
+    Choreographer.getInstance().removeFrameCallback(this);
+  }
+
+  int getFrames() {
+    return mFrames;
+  }
+
+  int getDroppedFrames() {
+    return mDroppedFrames;
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    if (!mRunning) {
+      return;
+    }
+
+    if (mLastFrameTimeNanos != 0) {
+      final long missed = (frameTimeNanos - mLastFrameTimeNanos + mFrameIntervalNanos / 2) / mFrameIntervalNanos - 1;
+      if (missed > 0) {
+        mDroppedFrames += missed;
+      }
+    }
+    mLastFrameTimeNanos = frameTimeNanos;
+    mFrames++;
+
+    Choreographer.getInstance().postFrameCallback(this);
+  }
+}
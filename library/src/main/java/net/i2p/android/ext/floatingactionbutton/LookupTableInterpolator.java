@@ -0,0 +1,42 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.view.animation.Interpolator;
+
+class LookupTableInterpolator implements Interpolator {
+  static final int DEFAULT_SAMPLES = 201;
+
+  private final float[] mValues;
+  private final float mStepCount;
+
+  LookupTableInterpolator(Interpolator interpolator) {
+    this(interpolator, DEFAULT_SAMPLES);
+  }
+
+  LookupTableInterpolator(Interpolator interpolator, int samples) {
+    if (samples < 2) {
+      throw new IllegalArgumentException("samples < 2");
+    }
+
+    mValues = new float[samples];
+    mStepCount = samples - 1;
+    for (int i = 0; i < samples; i++) {
+      mValues[i] = interpolator.getInterpolation(i / mStepCount);
+    }
+  }
+
+  @Override
+  public float getInterpolation(float input) {
+    if (input <= 0f) {
+      return mValues[0];
+    }
+    if (input >= 1f) {
+      return mValues[mValues.length - 1];
+    }
+
+    final float position = input * mStepCount;
+    final int index = (int) position;
+    final float fraction = position - index;
+
+    return mValues[index] + (mValues[index + 1] - mValues[index]) * fraction;
+  }
+}
@@ -0,0 +1,133 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+class PlusDrawable extends Drawable {
+  private static PlusState sState;
+
+  private final PlusState mState;
+  private final Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+  private int mTint = Color.WHITE;
+  private int mAlpha = 0xff;
+  private float mRotation;
+
+  PlusDrawable(FabMetrics metrics) {
+    this(getState(metrics));
+  }
+
+  private PlusDrawable(PlusState state) {
+    mState = state;
+    mPaint.setStyle(Style.FILL);
+    updatePaint();
+  }
+
+  static synchronized PlusState getState(FabMetrics metrics) {
+    if (sState == null || sState.mMetrics != metrics) {
+      sState = new PlusState(metrics);
+    }
+    return sState;
+  }
+
+  boolean matches(FabMetrics metrics) {
+    return mState.mMetrics == metrics;
+  }
+
+  void setTint(int tint) {
+    if (mTint != tint) {
+      mTint = tint;
+      updatePaint();
+      invalidateSelf();
+    }
+  }
+
+  void setRotation(float rotation) {
+    if (mRotation != rotation) {
+      mRotation = rotation;
+      invalidateSelf();
+    }
+  }
+
+  private void updatePaint() {
+    mPaint.setColor(mTint);
+    mPaint.setAlpha(BaseBackgroundDrawable.modulateAlpha(Color.alpha(mTint), mAlpha));
+  }
+
+  @Override
+  public void draw(Canvas canvas) {
+    final Rect bounds = getBounds();
+    final float centerX = bounds.exactCenterX();
+    final float centerY = bounds.exactCenterY();
+    final float halfSize = mState.mHalfSize;
+    final float halfStroke = mState.mHalfStroke;
+
+    canvas.save();
+    canvas.rotate(mRotation, centerX, centerY);
+    canvas.drawRect(centerX - halfSize, centerY - halfStroke, centerX + halfSize, centerY + halfStroke, mPaint);
+    canvas.drawRect(centerX - halfStroke, centerY - halfSize, centerX + halfStroke, centerY + halfSize, mPaint);
+    canvas.restore();
+  }
+
+  @Override
+  public int getIntrinsicWidth() {
+    return mState.mIconSize;
+  }
+
+  @Override
+  public int getIntrinsicHeight() {
+    return mState.mIconSize;
+  }
+
+  @Override
+  public void setAlpha(int alpha) {
+    mAlpha = alpha;
+    updatePaint();
+    invalidateSelf();
+  }
+
+  @Override
+  public void setColorFilter(ColorFilter cf) {
+    mPaint.setColorFilter(cf);
+    invalidateSelf();
+  }
+
+  @Override
+  public int getOpacity() {
+    return PixelFormat.TRANSLUCENT;
+  }
+
+  @Override
+  public ConstantState getConstantState() {
+    return mState;
+  }
+
+  static final class PlusState extends ConstantState {
+    final FabMetrics mMetrics;
+    final int mIconSize;
+    final float mHalfSize;
+    final float mHalfStroke;
+
+    PlusState(FabMetrics metrics) {
+      mMetrics = metrics;
+      mIconSize = Math.round(metrics.iconSize);
+      mHalfSize = metrics.plusIconSize / 2f;
+      mHalfStroke = metrics.plusIconStroke / 2f;
+    }
+
+    @Override
+    public Drawable newDrawable() {
+      return new PlusDrawable(this);
+    }
+
+    @Override
+    public int getChangingConfigurations() {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.view.View.MeasureSpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Upper bounds on what a background rebuild and an animation frame may allocate or trigger once the caches are warm.
+ * Bitmaps, rebuilds, icon loads and layouts are counted exactly. Heap bytes are measured on the JVM, where a rebuild's
+ * budget only catches regressions in bulk. A frame must not allocate at all: Robolectric's instrumented
+ * Drawable.invalidateSelf() allocates where a device does not, so the frame's one unavoidable invalidation, the plus
+ * icon's rotation, is measured on its own and subtracted.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@Config(qualifiers = "mdpi")
+public class FabAllocationTest {
+  private static final int WARMUP_ITERATIONS = 20;
+  private static final int ITERATIONS = 200;
+  private static final int MENU_ACTIONS = 5;
+
+  private static final long UPDATE_BACKGROUND_BYTES_BUDGET = 16 * 1024;
+  private static final long ANIMATION_FRAME_BYTES_BUDGET = 0;
+
+  private final Counter mCounter = new Counter();
+  private Context mContext;
+
+  @Before
+  public void setUp() {
+    mContext = RuntimeEnvironment.getApplication();
+  }
+
+  @After
+  public void tearDown() {
+    FabStats.setListener(null);
+  }
+
+  @Test
+  public void updateBackgroundVector() {
+    assertUpdateBackgroundBudget(createButton(FloatingActionButton.RENDER_MODE_VECTOR, FloatingActionButton.RENDER_PROFILE_FULL));
+  }
+
+  @Test
+  public void updateBackgroundBitmap() {
+    assertUpdateBackgroundBudget(createButton(FloatingActionButton.RENDER_MODE_BITMAP, FloatingActionButton.RENDER_PROFILE_FULL));
+  }
+
+  @Test
+  public void updateBackgroundAlphaMask() {
+    assertUpdateBackgroundBudget(createButton(FloatingActionButton.RENDER_MODE_ALPHA_MASK, FloatingActionButton.RENDER_PROFILE_FULL));
+  }
+
+  @Test
+  public void updateBackgroundLowEnd() {
+    assertUpdateBackgroundBudget(createButton(FloatingActionButton.RENDER_MODE_VECTOR, FloatingActionButton.RENDER_PROFILE_LOW_END));
+  }
+
+  @Test
+  public void animationFrame() {
+    final FloatingActionsMenu menu = new FloatingActionsMenu(mContext);
+    for (int i = 0; i < MENU_ACTIONS; i++) {
+      final FloatingActionButton action = new FloatingActionButton(mContext);
+      action.setSize(FloatingActionButton.SIZE_MINI);
+      action.setIcon(android.R.drawable.ic_menu_add);
+      action.setColorNormal(Color.rgb(0x30 * (i + 1), 0x80, 0xc0));
+      menu.addView(action);
+    }
+    layout(menu);
+    menu.expand();
+    menu.endAnimation();
+    layout(menu);
+
+    final Drawable plusIcon = ((FabCompositeDrawable) menu.findViewById(R.id.fab_expand_menu_button).getBackground()).getIcon();
+    final long invalidationBytes = measure(new Runnable() {
+      @Override
+      public void run() {
+        plusIcon.invalidateSelf();
+      }
+    });
+    mCounter.reset();
+
+    final long bytesPerFrame = measure(new Runnable() {
+      private int mFrame;
+
+      @Override
+      public void run() {
+        menu.applyAnimationFraction((mFrame++ % 60) / 59f);
+      }
+    }) - invalidationBytes;
+
+    assertEquals("bitmaps per frame", 0, mCounter.mBitmaps);
+    assertEquals("bitmap bytes per frame", 0, mCounter.mBitmapBytes);
+    assertEquals("full rebuilds per frame", 0, mCounter.mFullRebuilds);
+    assertEquals("partial rebuilds per frame", 0, mCounter.mPartialRebuilds);
+    assertEquals("icon loads per frame", 0, mCounter.mIconLoads);
+    assertEquals("menu layouts per frame", 0, mCounter.mMenuLayouts);
+    assertFalse("a frame requested a layout", menu.isLayoutRequested());
+    assertBytesBudget("animation frame", bytesPerFrame, ANIMATION_FRAME_BYTES_BUDGET);
+  }
+
+  private FloatingActionButton createButton(int renderMode, int renderProfile) {
+    final FloatingActionButton button = new FloatingActionButton(mContext);
+    button.setRenderMode(renderMode);
+    button.setRenderProfile(renderProfile);
+    button.setIcon(android.R.drawable.ic_menu_add);
+    layout(button);
+    return button;
+  }
+
+  private void assertUpdateBackgroundBudget(final FloatingActionButton button) {
+    final long bytesPerOp = measure(new Runnable() {
+      @Override
+      public void run() {
+        button.updateBackground();
+      }
+    });
+
+    assertEquals("bitmaps per updateBackground()", 0, mCounter.mBitmaps);
+    assertEquals("bitmap bytes per updateBackground()", 0, mCounter.mBitmapBytes);
+    assertEquals("full rebuilds", ITERATIONS, mCounter.mFullRebuilds);
+    assertEquals("partial rebuilds", 0, mCounter.mPartialRebuilds);
+    assertEquals("icon loads", ITERATIONS, mCounter.mIconLoads);
+    assertBytesBudget("updateBackground()", bytesPerOp, UPDATE_BACKGROUND_BYTES_BUDGET);
+  }
+
+  private static void assertBytesBudget(String name, long bytesPerOp, long budget) {
+    assertTrue(name + " allocated " + bytesPerOp + " bytes per call, budget is " + budget, bytesPerOp <= budget);
+  }
+
+  private long measure(Runnable op) {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      op.run();
+    }
+
+    FabStats.setListener(mCounter);
+    final long before = allocatedBytes();
+    for (int i = 0; i < ITERATIONS; i++) {
+      op.run();
+    }
+    final long allocated = allocatedBytes() - before;
+    FabStats.setListener(null);
+
+    return allocated / ITERATIONS;
+  }
+
+  static long allocatedBytes() {
+    final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static void layout(View view) {
+    final int unspecified = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+    view.measure(unspecified, unspecified);
+    view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+  }
+
+  private static class Counter extends FabStats.Listener {
+    int mBitmaps;
+    long mBitmapBytes;
+    int mFullRebuilds;
+    int mPartialRebuilds;
+    int mIconLoads;
+    int mMenuLayouts;
+
+    void reset() {
+      mBitmaps = 0;
+      mBitmapBytes = 0;
+      mFullRebuilds = 0;
+      mPartialRebuilds = 0;
+      mIconLoads = 0;
+      mMenuLayouts = 0;
+    }
+
+    @Override
+    public void onBitmapAllocated(int bytes) {
+      mBitmaps++;
+      mBitmapBytes += bytes;
+    }
+
+    @Override
+    public void onBackgroundRebuilt(FloatingActionButton button, boolean full, long durationNanos) {
+      if (full) {
+        mFullRebuilds++;
+      } else {
+        mPartialRebuilds++;
+      }
+    }
+
+    @Override
+    public void onIconLoaded(FloatingActionButton button, long durationNanos) {
+      mIconLoads++;
+    }
+
+    @Override
+    public void onMenuLayout(FloatingActionsMenu menu, boolean rewired) {
+      mMenuLayouts++;
+    }
+  }
+}
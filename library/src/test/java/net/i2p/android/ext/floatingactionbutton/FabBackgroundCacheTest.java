@@ -0,0 +1,91 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricTestRunner.class)
+public class FabBackgroundCacheTest {
+  private static final int MAX_SIZE = 4;
+
+  private final FabBackgroundCache mCache = FabBackgroundCache.getInstance();
+  private FabMetrics mMetrics;
+  private int mPreviousMaxSize;
+
+  @Before
+  public void setUp() {
+    mMetrics = FabMetrics.get(RuntimeEnvironment.getApplication().getResources());
+    mPreviousMaxSize = mCache.maxSize();
+    mCache.evictAll();
+    mCache.resize(MAX_SIZE);
+  }
+
+  @After
+  public void tearDown() {
+    mCache.resize(mPreviousMaxSize);
+    mCache.evictAll();
+  }
+
+  private static Drawable.ConstantState state() {
+    return new ColorDrawable(Color.BLACK).getConstantState();
+  }
+
+  private static FabBackgroundCache.Entry entry() {
+    return new FabBackgroundCache.Entry(state(), state(), state());
+  }
+
+  @Test
+  public void maxSizeBoundsAllKindsTogether() {
+    mCache.putShadow(FabBackgroundCache.Key.forShadow(mMetrics, FloatingActionButton.SIZE_NORMAL), state());
+    for (int i = 0; i < MAX_SIZE; i++) {
+      mCache.put(FabBackgroundCache.Key.forBitmaps(mMetrics, FloatingActionButton.SIZE_NORMAL, i, i), entry());
+      mCache.putIcon(new FabBackgroundCache.IconKey(i, 24, mMetrics.density), state());
+      assertEquals(Math.min(1 + 2 * (i + 1), MAX_SIZE), mCache.size());
+    }
+
+    // the least recently used items go first, whatever their kind
+    assertNull(mCache.peekShadow(FabBackgroundCache.Key.forShadow(mMetrics, FloatingActionButton.SIZE_NORMAL)));
+    assertNull(mCache.peek(FabBackgroundCache.Key.forBitmaps(mMetrics, FloatingActionButton.SIZE_NORMAL, 1, 1)));
+    assertNotNull(mCache.peek(FabBackgroundCache.Key.forBitmaps(mMetrics, FloatingActionButton.SIZE_NORMAL, MAX_SIZE - 1, MAX_SIZE - 1)));
+    assertNotNull(mCache.getIcon(new FabBackgroundCache.IconKey(MAX_SIZE - 1, 24, mMetrics.density)));
+
+    mCache.resize(2);
+    assertEquals(2, mCache.size());
+  }
+
+  @Test
+  public void kindsWithEqualValuesDoNotCollide() {
+    final FabBackgroundCache.Entry entry = entry();
+    mCache.put(FabBackgroundCache.Key.forBitmaps(mMetrics, FloatingActionButton.SIZE_NORMAL, 0, 0), entry);
+
+    assertNull(mCache.peekMasks(FabBackgroundCache.Key.forMasks(mMetrics, FloatingActionButton.SIZE_NORMAL)));
+    assertEquals(entry, mCache.peek(FabBackgroundCache.Key.forBitmaps(mMetrics, FloatingActionButton.SIZE_NORMAL, 0, 0)));
+  }
+
+  @Test
+  public void hitAndMissCountsOnlyCoverBackgrounds() {
+    final int hits = mCache.hitCount();
+    final int misses = mCache.missCount();
+    final FabBackgroundCache.Key key = FabBackgroundCache.Key.forBitmaps(mMetrics, FloatingActionButton.SIZE_NORMAL, Color.RED, Color.BLUE);
+
+    assertNull(mCache.get(key));
+    mCache.put(key, entry());
+    assertNotNull(mCache.get(key));
+    mCache.getShadow(FabBackgroundCache.Key.forShadow(mMetrics, FloatingActionButton.SIZE_NORMAL));
+    mCache.getIcon(new FabBackgroundCache.IconKey(1, 24, mMetrics.density));
+
+    assertEquals(hits + 1, mCache.hitCount());
+    assertEquals(misses + 1, mCache.missCount());
+  }
+}
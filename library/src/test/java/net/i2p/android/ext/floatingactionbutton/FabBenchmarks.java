@@ -0,0 +1,213 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.content.Context;
+import android.view.View.MeasureSpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.Locale;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Times the library's hot paths on the JVM and prints nanoseconds, heap bytes and bitmap bytes per operation.
+ * Skipped unless run with -Dfab.benchmark=true; FabAllocationTest holds the budgets that fail the build.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@Config(qualifiers = "mdpi")
+public class FabBenchmarks {
+  private static final String BENCHMARK_PROPERTY = "fab.benchmark";
+
+  private static final int WARMUP_ITERATIONS = 20;
+  private static final int ITERATIONS = 200;
+
+  private static final int[] MENU_SIZES = { 1, 5, 10, 25, 50 };
+  private static final int MAX_VISIBLE_ACTIONS = 5;
+
+  private interface Op {
+    void run(int iteration);
+  }
+
+  private Context mContext;
+
+  @Before
+  public void setUp() {
+    assumeTrue(Boolean.getBoolean(BENCHMARK_PROPERTY));
+    mContext = RuntimeEnvironment.getApplication();
+  }
+
+  @After
+  public void tearDown() {
+    FabStats.setListener(null);
+  }
+
+  private static void measure(String name, Op op) {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      op.run(i);
+    }
+
+    final long[] bitmapBytes = new long[1];
+    FabStats.setListener(new FabStats.Listener() {
+      @Override
+      public void onBitmapAllocated(int bytes) {
+        bitmapBytes[0] += bytes;
+      }
+    });
+
+    final long allocatedBefore = FabAllocationTest.allocatedBytes();
+    final long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      op.run(i);
+    }
+    final long elapsed = System.nanoTime() - start;
+    final long allocated = FabAllocationTest.allocatedBytes() - allocatedBefore;
+    FabStats.setListener(null);
+
+    System.out.println(String.format(Locale.US, "%s: %.0f ns/op, %d B/op, %d bitmap B/op",
+        name, (double) elapsed / ITERATIONS, allocated / ITERATIONS, bitmapBytes[0] / ITERATIONS));
+  }
+
+  @Test
+  public void buttons() {
+    measure("FloatingActionButton.<init>", new Op() {
+      @Override
+      public void run(int iteration) {
+        new FloatingActionButton(mContext);
+      }
+    });
+
+    final int[] renderModes = {
+        FloatingActionButton.RENDER_MODE_VECTOR,
+        FloatingActionButton.RENDER_MODE_BITMAP,
+        FloatingActionButton.RENDER_MODE_ALPHA_MASK
+    };
+    final String[] renderModeNames = { "vector", "bitmap", "alphaMask" };
+    for (int i = 0; i < renderModes.length; i++) {
+      final FloatingActionButton button = new FloatingActionButton(mContext);
+      button.setRenderMode(renderModes[i]);
+
+      measure("FloatingActionButton.updateBackground() [" + renderModeNames[i] + "]", new Op() {
+        @Override
+        public void run(int iteration) {
+          button.updateBackground();
+        }
+      });
+    }
+
+    final FloatingActionButton lowEndButton = new FloatingActionButton(mContext);
+    lowEndButton.setRenderProfile(FloatingActionButton.RENDER_PROFILE_LOW_END);
+    measure("FloatingActionButton.updateBackground() [lowEnd]", new Op() {
+      @Override
+      public void run(int iteration) {
+        lowEndButton.updateBackground();
+      }
+    });
+
+    final AddFloatingActionButton addButton = new AddFloatingActionButton(mContext);
+    measure("AddFloatingActionButton.getIconDrawable()", new Op() {
+      @Override
+      public void run(int iteration) {
+        addButton.getIconDrawable();
+      }
+    });
+  }
+
+  @Test
+  public void menus() {
+    for (int size : MENU_SIZES) {
+      final FloatingActionsMenu menu = new FloatingActionsMenu(mContext);
+      for (int i = 0; i < size; i++) {
+        menu.addView(new FloatingActionButton(mContext));
+      }
+
+      final int largeSpec = MeasureSpec.makeMeasureSpec(100000, MeasureSpec.AT_MOST);
+      final int smallSpec = MeasureSpec.makeMeasureSpec(50000, MeasureSpec.AT_MOST);
+
+      measure("FloatingActionsMenu.onMeasure() [" + size + " actions]", new Op() {
+        @Override
+        public void run(int iteration) {
+          final int spec = iteration % 2 == 0 ? largeSpec : smallSpec;
+          menu.measure(spec, spec);
+        }
+      });
+
+      measure("FloatingActionsMenu.onMeasure() cached [" + size + " actions]", new Op() {
+        @Override
+        public void run(int iteration) {
+          menu.measure(largeSpec, largeSpec);
+        }
+      });
+
+      measure("FloatingActionsMenu.onLayout() [" + size + " actions]", new Op() {
+        @Override
+        public void run(int iteration) {
+          final int offset = iteration % 2;
+          menu.layout(0, 0, menu.getMeasuredWidth() + offset, menu.getMeasuredHeight() + offset);
+        }
+      });
+
+      measure("FloatingActionsMenu.onLayout() unchanged [" + size + " actions]", new Op() {
+        @Override
+        public void run(int iteration) {
+          menu.layout(iteration, iteration, iteration + menu.getMeasuredWidth(), iteration + menu.getMeasuredHeight());
+        }
+      });
+
+      menu.expand();
+      menu.endAnimation();
+      measure("FloatingActionsMenu animation frame [" + size + " actions]", new Op() {
+        @Override
+        public void run(int iteration) {
+          menu.applyAnimationFraction((iteration % 16) / 15f);
+        }
+      });
+    }
+  }
+
+  @Test
+  public void overflowingMenu() {
+    final int actionCount = MENU_SIZES[MENU_SIZES.length - 1];
+    final FloatingActionsMenu menu = new FloatingActionsMenu(mContext);
+    menu.setMaxVisibleActions(MAX_VISIBLE_ACTIONS);
+    menu.setAdapter(new FloatingActionsMenu.Adapter() {
+      @Override
+      public int getCount() {
+        return actionCount;
+      }
+
+      @Override
+      public FloatingActionsMenu.Action getAction(int position) {
+        return new FloatingActionsMenu.Action(position, 0, 0xff000000 | position * 0x050505, 0xff000000, FloatingActionButton.SIZE_MINI);
+      }
+    });
+    menu.expand();
+    menu.endAnimation();
+
+    final int spec = MeasureSpec.makeMeasureSpec(100000, MeasureSpec.AT_MOST);
+    menu.measure(spec, spec);
+    menu.layout(0, 0, menu.getMeasuredWidth(), menu.getMeasuredHeight());
+
+    final String suffix = " [" + actionCount + " actions, " + MAX_VISIBLE_ACTIONS + " visible]";
+    measure("FloatingActionsMenu animation frame" + suffix, new Op() {
+      @Override
+      public void run(int iteration) {
+        menu.applyAnimationFraction((iteration % 16) / 15f);
+      }
+    });
+
+    measure("FloatingActionsMenu.scrollActions(1)" + suffix, new Op() {
+      @Override
+      public void run(int iteration) {
+        menu.scrollActions(iteration % 2 == 0 ? 1 : -1);
+      }
+    });
+  }
+}
@@ -0,0 +1,136 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Region;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.GraphicsMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class FabCompositeDrawableTest {
+  private static final int SIZE = 100;
+  private static final int LEFT = 10;
+  private static final int TOP = 20;
+  private static final int INSET_HORIZONTAL = 30;
+  private static final int INSET_TOP = 28;
+  private static final int INSET_BOTTOM = 32;
+
+  private FabCompositeDrawable mDrawable;
+
+  @Before
+  public void setUp() {
+    final RectF circleRect = new RectF(12f, 10f, 88f, 86f);
+    final RectF shadowExtent = new RectF(circleRect);
+    shadowExtent.offset(0f, 2f);
+    shadowExtent.inset(-8f, -8f);
+
+    mDrawable = new FabCompositeDrawable(SIZE, circleRect, shadowExtent, 1f,
+        INSET_HORIZONTAL, INSET_TOP, INSET_BOTTOM);
+    mDrawable.setBounds(LEFT, TOP, LEFT + SIZE, TOP + SIZE);
+    mDrawable.setShadow(new ColorDrawable(Color.BLACK));
+    mDrawable.setFill(new ColorDrawable(Color.RED));
+  }
+
+  private static Rect iconRect() {
+    return new Rect(LEFT + INSET_HORIZONTAL, TOP + INSET_TOP,
+        LEFT + SIZE - INSET_HORIZONTAL, TOP + SIZE - INSET_BOTTOM);
+  }
+
+  @Test
+  public void iconIsInsetWhenSet() {
+    final Drawable icon = new ColorDrawable(Color.WHITE);
+    mDrawable.setIcon(icon);
+
+    assertEquals(iconRect(), icon.getBounds());
+  }
+
+  @Test
+  public void iconIsInsetAfterSwap() {
+    final Drawable first = new ColorDrawable(Color.WHITE);
+    final Drawable second = new ColorDrawable(Color.BLUE);
+    mDrawable.setIcon(first);
+    mDrawable.setIcon(second);
+
+    assertEquals(iconRect(), second.getBounds());
+    assertSame(second, mDrawable.getIcon());
+  }
+
+  @Test
+  public void iconIsInsetAfterBoundsChange() {
+    final Drawable icon = new ColorDrawable(Color.WHITE);
+    mDrawable.setIcon(icon);
+    mDrawable.setBounds(0, 0, SIZE, SIZE);
+    mDrawable.setBounds(LEFT, TOP, LEFT + SIZE, TOP + SIZE);
+
+    assertEquals(iconRect(), icon.getBounds());
+  }
+
+  @Test
+  public void transparentRegionIsOutsideShadow() {
+    final Region region = mDrawable.getTransparentRegion();
+    assertNotNull(region);
+
+    // corners are outside the shadow's oval
+    assertTrue(region.contains(LEFT, TOP));
+    assertTrue(region.contains(LEFT + SIZE - 1, TOP));
+    assertTrue(region.contains(LEFT, TOP + SIZE - 1));
+    assertTrue(region.contains(LEFT + SIZE - 1, TOP + SIZE - 1));
+
+    // the circle and the shadow's edges are drawn
+    assertFalse(region.contains(LEFT + SIZE / 2, TOP + SIZE / 2));
+    assertFalse(region.contains(LEFT + 5, TOP + 50));
+    assertFalse(region.contains(LEFT + 50, TOP + SIZE - 6));
+
+    // and nothing outside the bounds is reported
+    final Rect bounds = region.getBounds();
+    assertTrue(mDrawable.getBounds().contains(bounds));
+  }
+
+  @Test
+  public void pressedStateInvalidates() {
+    final FabBackgroundDrawable fill = new FabBackgroundDrawable(SIZE, new RectF(12f, 10f, 88f, 86f), 1f, Color.RED, Color.BLUE, true);
+    final int[] invalidations = new int[1];
+    fill.setCallback(new Drawable.Callback() {
+      @Override
+      public void invalidateDrawable(Drawable who) {
+        invalidations[0]++;
+      }
+
+      @Override
+      public void scheduleDrawable(Drawable who, Runnable what, long when) {
+      }
+
+      @Override
+      public void unscheduleDrawable(Drawable who, Runnable what) {
+      }
+    });
+
+    assertTrue(fill.setState(new int[] { android.R.attr.state_pressed }));
+    assertEquals(1, invalidations[0]);
+    assertFalse(fill.setState(new int[] { android.R.attr.state_pressed }));
+    assertEquals(1, invalidations[0]);
+    assertTrue(fill.setState(new int[0]));
+    assertEquals(2, invalidations[0]);
+  }
+
+  @Test
+  public void transparentRegionIsCached() {
+    assertSame(mDrawable.getTransparentRegion(), mDrawable.getTransparentRegion());
+    mDrawable.setIcon(new ColorDrawable(Color.WHITE));
+    assertSame(mDrawable.getTransparentRegion(), mDrawable.getTransparentRegion());
+  }
+}
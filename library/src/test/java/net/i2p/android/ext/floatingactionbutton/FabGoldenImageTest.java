@@ -0,0 +1,191 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.View;
+import android.view.View.MeasureSpec;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Renders the buttons and menus and compares them with the PNGs under src/test/resources/golden.
+ * Run with -Dfab.recordGoldens=path/to/library/src/test/resources/golden to rewrite them after an intended change.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@Config(qualifiers = "mdpi")
+public class FabGoldenImageTest {
+  private static final String RECORD_PROPERTY = "fab.recordGoldens";
+  private static final int CHANNEL_TOLERANCE = 2;
+  private static final int MENU_ACTIONS = 3;
+  private static final float MID_ANIMATION_FRACTION = 0.5f;
+
+  private Context mContext;
+
+  @Before
+  public void setUp() {
+    mContext = RuntimeEnvironment.getApplication();
+  }
+
+  @Test
+  public void normalButton() throws IOException {
+    assertMatchesGolden(createButton(FloatingActionButton.SIZE_NORMAL, 0), "fab_normal");
+  }
+
+  @Test
+  public void normalButtonWithIcon() throws IOException {
+    assertMatchesGolden(createButton(FloatingActionButton.SIZE_NORMAL, android.R.drawable.ic_menu_add), "fab_normal_icon");
+  }
+
+  @Test
+  public void miniButton() throws IOException {
+    assertMatchesGolden(createButton(FloatingActionButton.SIZE_MINI, 0), "fab_mini");
+  }
+
+  @Test
+  public void miniButtonWithIcon() throws IOException {
+    assertMatchesGolden(createButton(FloatingActionButton.SIZE_MINI, android.R.drawable.ic_menu_add), "fab_mini_icon");
+  }
+
+  @Test
+  public void addButton() throws IOException {
+    assertMatchesGolden(new AddFloatingActionButton(mContext), "add_fab");
+  }
+
+  @Test
+  public void menuUp() throws IOException {
+    assertMenuMatchesGoldens(FloatingActionsMenu.EXPAND_UP, "up");
+  }
+
+  @Test
+  public void menuDown() throws IOException {
+    assertMenuMatchesGoldens(FloatingActionsMenu.EXPAND_DOWN, "down");
+  }
+
+  @Test
+  public void menuLeft() throws IOException {
+    assertMenuMatchesGoldens(FloatingActionsMenu.EXPAND_LEFT, "left");
+  }
+
+  @Test
+  public void menuRight() throws IOException {
+    assertMenuMatchesGoldens(FloatingActionsMenu.EXPAND_RIGHT, "right");
+  }
+
+  private FloatingActionButton createButton(int size, int icon) {
+    final FloatingActionButton button = new FloatingActionButton(mContext);
+    button.setSize(size);
+    if (icon != 0) {
+      button.setIcon(icon);
+    }
+    return button;
+  }
+
+  private void assertMenuMatchesGoldens(int expandDirection, String directionName) throws IOException {
+    final FloatingActionsMenu menu = new FloatingActionsMenu(mContext);
+    menu.setExpandDirection(expandDirection);
+    for (int i = 0; i < MENU_ACTIONS; i++) {
+      final FloatingActionButton action = new FloatingActionButton(mContext);
+      action.setSize(FloatingActionButton.SIZE_MINI);
+      action.setColorNormal(Color.rgb(0x40 * (i + 1), 0x80, 0xc0));
+      menu.addView(action);
+    }
+    assertMatchesGolden(menu, "menu_" + directionName + "_collapsed");
+
+    // the animator is stopped, so the frame depends on the fraction alone
+    menu.expand();
+    menu.endAnimation();
+    menu.applyAnimationFraction(MID_ANIMATION_FRACTION);
+    assertMatchesGolden(menu, "menu_" + directionName + "_mid");
+  }
+
+  private void assertMatchesGolden(View view, String name) throws IOException {
+    final Bitmap actual = render(view);
+
+    final String recordDir = System.getProperty(RECORD_PROPERTY);
+    if (recordDir != null && !recordDir.isEmpty()) {
+      final File dir = new File(recordDir);
+      dir.mkdirs();
+      final FileOutputStream out = new FileOutputStream(new File(dir, name + ".png"));
+      try {
+        actual.compress(Bitmap.CompressFormat.PNG, 100, out);
+      } finally {
+        out.close();
+      }
+      return;
+    }
+
+    final InputStream in = getClass().getClassLoader().getResourceAsStream("golden/" + name + ".png");
+    assertNotNull("no golden image for " + name, in);
+    final Bitmap golden;
+    try {
+      golden = BitmapFactory.decodeStream(in);
+    } finally {
+      in.close();
+    }
+    assertNotNull("unreadable golden image for " + name, golden);
+
+    assertEquals(name + " width", golden.getWidth(), actual.getWidth());
+    assertEquals(name + " height", golden.getHeight(), actual.getHeight());
+
+    final int mismatches = countMismatches(actual, golden);
+    if (mismatches > 0) {
+      fail(name + ": " + mismatches + " pixels differ from the golden image by more than " + CHANNEL_TOLERANCE);
+    }
+  }
+
+  private static Bitmap render(View view) {
+    final int unspecified = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+    view.measure(unspecified, unspecified);
+    view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+
+    final Bitmap bitmap = Bitmap.createBitmap(Math.max(1, view.getWidth()), Math.max(1, view.getHeight()), Bitmap.Config.ARGB_8888);
+    view.draw(new Canvas(bitmap));
+    return bitmap;
+  }
+
+  private static int countMismatches(Bitmap actual, Bitmap golden) {
+    final int width = actual.getWidth();
+    final int height = actual.getHeight();
+    final int[] actualRow = new int[width];
+    final int[] goldenRow = new int[width];
+    int mismatches = 0;
+    for (int y = 0; y < height; y++) {
+      actual.getPixels(actualRow, 0, width, 0, y, width, 1);
+      golden.getPixels(goldenRow, 0, width, 0, y, width, 1);
+      for (int x = 0; x < width; x++) {
+        if (!channelsMatch(actualRow[x], goldenRow[x])) {
+          mismatches++;
+        }
+      }
+    }
+    return mismatches;
+  }
+
+  private static boolean channelsMatch(int a, int b) {
+    for (int shift = 0; shift < 32; shift += 8) {
+      if (Math.abs(((a >>> shift) & 0xff) - ((b >>> shift) & 0xff)) > CHANNEL_TOLERANCE) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,43 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+public class FabMetricsTest {
+  @Test
+  public void unchangedResourcesReuseTheirMetrics() {
+    final Resources res = RuntimeEnvironment.getApplication().getResources();
+    assertSame(FabMetrics.get(res), FabMetrics.get(res));
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void densityChangeResolvesNewMetrics() {
+    final Resources res = RuntimeEnvironment.getApplication().getResources();
+    final FabMetrics before = FabMetrics.get(res);
+
+    final Configuration config = new Configuration(res.getConfiguration());
+    final DisplayMetrics displayMetrics = new DisplayMetrics();
+    displayMetrics.setTo(res.getDisplayMetrics());
+    displayMetrics.density *= 2f;
+    displayMetrics.densityDpi *= 2;
+    config.densityDpi = displayMetrics.densityDpi;
+    res.updateConfiguration(config, displayMetrics);
+
+    final FabMetrics after = FabMetrics.get(res);
+    assertNotSame(before, after);
+    assertEquals(2f * before.sizeNormal, after.sizeNormal, 0.5f);
+    assertSame(after, FabMetrics.get(res));
+  }
+}
@@ -0,0 +1,35 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.content.res.Resources;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.view.Gravity;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+@Config(qualifiers = "mdpi")
+public class FabRendererTest {
+  @Test
+  public void decodedIconsAreCenteredInTheIconBox() {
+    final Resources res = RuntimeEnvironment.getApplication().getResources();
+    final FabMetrics metrics = FabMetrics.get(res);
+    final int iconSize = Math.round(metrics.iconSize);
+
+    final Drawable icon = FabRenderer.getIcon(res, metrics, android.R.drawable.ic_menu_add);
+    assertTrue(icon instanceof BitmapDrawable);
+
+    // a non-square bitmap would be stretched to the square icon box with the default FILL gravity
+    assertEquals(Gravity.CENTER, ((BitmapDrawable) icon).getGravity());
+    assertEquals(iconSize, Math.max(icon.getIntrinsicWidth(), icon.getIntrinsicHeight()));
+  }
+}
@@ -0,0 +1,96 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.app.Activity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.BaseAdapter;
+import android.widget.FrameLayout;
+import android.widget.ListView;
+
+import com.nineoldandroids.view.ViewHelper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadow.api.Shadow;
+import org.robolectric.shadows.ShadowAbsListView;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+public class FabScrollControllerTest {
+  private static final int WIDTH = 480;
+  private static final int HEIGHT = 400;
+
+  private ListView mList;
+  private View mButton;
+  private AbsListView.OnScrollListener mScrollListener;
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+    final FrameLayout root = new FrameLayout(activity);
+    mList = new ListView(activity);
+    mList.setDivider(null);
+    mList.setAdapter(new RowAdapter());
+    root.addView(mList, new FrameLayout.LayoutParams(WIDTH, HEIGHT));
+    mButton = new View(activity);
+    root.addView(mButton, new FrameLayout.LayoutParams(56, 56));
+    activity.setContentView(root);
+
+    root.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+    root.layout(0, 0, WIDTH, HEIGHT);
+
+    new FabScrollController(mButton).attachTo(mList);
+    // Robolectric keeps the listener instead of letting the list call it
+    mScrollListener = ((ShadowAbsListView) Shadow.extract(mList)).getOnScrollListener();
+  }
+
+  private void scrollBy(int y) {
+    mList.scrollListBy(y);
+    mScrollListener.onScroll(mList, mList.getFirstVisiblePosition(), mList.getChildCount(), mList.getCount());
+    ShadowLooper.shadowMainLooper().idleFor(Duration.ofMillis(100));
+  }
+
+  @Test
+  public void followsScrollAcrossRowsOfDifferentHeights() {
+    // the first row is 50px and the second 150px: scrolling 120px moves past the first row
+    scrollBy(120);
+    assertEquals(1, mList.getFirstVisiblePosition());
+    assertEquals(120f, ViewHelper.getTranslationY(mButton), 0f);
+
+    scrollBy(-70);
+    assertEquals(50f, ViewHelper.getTranslationY(mButton), 0f);
+  }
+
+  private static final class RowAdapter extends BaseAdapter {
+    @Override
+    public int getCount() {
+      return 100;
+    }
+
+    @Override
+    public Object getItem(int position) {
+      return position;
+    }
+
+    @Override
+    public long getItemId(int position) {
+      return position;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+      final View row = new View(parent.getContext());
+      row.setLayoutParams(new AbsListView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, position % 2 == 0 ? 50 : 150));
+      return row;
+    }
+  }
+}
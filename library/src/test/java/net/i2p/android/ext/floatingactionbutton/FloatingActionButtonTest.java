@@ -0,0 +1,48 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricTestRunner.class)
+public class FloatingActionButtonTest {
+  private FloatingActionButton mButton;
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+    mButton = new FloatingActionButton(activity);
+    activity.setContentView(mButton);
+  }
+
+  private FabCompositeDrawable getBackground() {
+    return (FabCompositeDrawable) mButton.getBackground();
+  }
+
+  @Test
+  public void trimReleasesAndPreDrawRepopulates() {
+    assertNotNull(getBackground().getShadow());
+
+    mButton.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+    assertNull(getBackground().getShadow());
+    assertNull(getBackground().getFill());
+
+    // drawing alone no longer rebuilds the layers
+    mButton.draw(new Canvas(Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888)));
+    assertNull(getBackground().getShadow());
+
+    mButton.getViewTreeObserver().dispatchOnPreDraw();
+    assertNotNull(getBackground().getShadow());
+    assertNotNull(getBackground().getFill());
+  }
+}
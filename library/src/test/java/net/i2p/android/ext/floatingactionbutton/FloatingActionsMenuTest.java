@@ -0,0 +1,283 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.graphics.Color;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+
+import com.nineoldandroids.view.ViewHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowSystemClock;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class FloatingActionsMenuTest {
+  private static final int CYCLES = 10000;
+  private static final int MAX_ACTIONS = 12;
+
+  private FloatingActionsMenu mMenu;
+
+  @Before
+  public void setUp() {
+    mMenu = new FloatingActionsMenu(RuntimeEnvironment.getApplication());
+  }
+
+  @After
+  public void tearDown() {
+    FabStats.setListener(null);
+  }
+
+  @Test
+  public void registryFollowsAddAndRemoveCycles() {
+    final Random random = new Random(42);
+    final View addButton = mMenu.findViewById(R.id.fab_expand_menu_button);
+
+    for (int cycle = 0; cycle < CYCLES; cycle++) {
+      final int actionCount = mMenu.getChildCount() - 1;
+      if (actionCount == 0 || (actionCount < MAX_ACTIONS && random.nextBoolean())) {
+        mMenu.addView(new View(mMenu.getContext()), random.nextInt(mMenu.getChildCount() + 1));
+      } else {
+        View removed;
+        do {
+          removed = mMenu.getChildAt(random.nextInt(mMenu.getChildCount()));
+        } while (removed == addButton);
+
+        ViewHelper.setTranslationY(removed, 10f);
+        ViewHelper.setAlpha(removed, 0.5f);
+        if (random.nextBoolean()) {
+          mMenu.removeView(removed);
+        } else {
+          mMenu.removeViewAt(mMenu.indexOfChild(removed));
+        }
+
+        assertNull(removed.getParent());
+        assertEquals(0f, ViewHelper.getTranslationY(removed), 0f);
+        assertEquals(1f, ViewHelper.getAlpha(removed), 0f);
+      }
+
+      assertRegistryMatchesChildren(addButton);
+    }
+  }
+
+  @Test
+  public void removeAllViewsKeepsAddButtonOnly() {
+    final View addButton = mMenu.findViewById(R.id.fab_expand_menu_button);
+    for (int i = 0; i < MAX_ACTIONS; i++) {
+      mMenu.addView(new View(mMenu.getContext()), 0);
+    }
+    assertRegistryMatchesChildren(addButton);
+
+    mMenu.removeAllViews();
+    mMenu.addView(addButton);
+    assertEquals(0, mMenu.getActionCount());
+    assertRegistryMatchesChildren(addButton);
+  }
+
+  @Test
+  public void staggerKeepsVisibilityAndFinishesLateActions() {
+    final View[] actions = new View[3];
+    for (int i = 0; i < actions.length; i++) {
+      actions[i] = new View(mMenu.getContext());
+      mMenu.addView(actions[i], i);
+    }
+    actions[1].setVisibility(View.GONE);
+    mMenu.setExpandStaggerDelay(100);
+    // otherwise every frame callback the menu's frame monitor posts moves the clock on by itself
+    ShadowChoreographer.setPaused(true);
+
+    mMenu.expand();
+    ShadowLooper.shadowMainLooper().idleFor(Duration.ofMillis(50));
+    assertVisibilities(actions);
+    // released last to first: only the last action has started
+    assertEquals(0f, ViewHelper.getAlpha(actions[0]), 0f);
+    assertEquals(0f, ViewHelper.getAlpha(actions[1]), 0f);
+    assertTrue(ViewHelper.getAlpha(actions[2]) > 0f);
+
+    // a stall past the nominal duration releases the next action late instead of ending the stagger
+    ShadowSystemClock.advanceBy(Duration.ofMillis(700));
+    ShadowLooper.shadowMainLooper().idle();
+    assertVisibilities(actions);
+    assertTrue(ViewHelper.getAlpha(actions[1]) < 1f);
+    assertTrue(ViewHelper.getAlpha(actions[0]) < 1f);
+
+    ShadowLooper.shadowMainLooper().idleFor(Duration.ofSeconds(2));
+    assertVisibilities(actions);
+    for (View action : actions) {
+      assertEquals(1f, ViewHelper.getAlpha(action), 0f);
+      assertEquals(0f, ViewHelper.getTranslationY(action), 0f);
+    }
+  }
+
+  @Test
+  public void actionsAreBuiltWithTheMenuProfile() {
+    mMenu.setRenderProfile(FloatingActionButton.RENDER_PROFILE_LOW_END);
+    mMenu.setAdapter(createAdapter(3));
+
+    FabBackgroundCache.getInstance().evictAll();
+    final int[] fullBuilds = new int[1];
+    final int[] bitmapBytes = new int[1];
+    FabStats.setListener(new FabStats.Listener() {
+      @Override
+      public void onBackgroundRebuilt(FloatingActionButton button, boolean full, long durationNanos) {
+        if (full) {
+          fullBuilds[0]++;
+        }
+      }
+
+      @Override
+      public void onBitmapAllocated(int bytes) {
+        bitmapBytes[0] += bytes;
+      }
+    });
+
+    mMenu.expand();
+    assertEquals(3, mMenu.getActionCount());
+    // one low-end build per button, so no blurred shadow is ever rasterized
+    assertEquals(3, fullBuilds[0]);
+    assertEquals(0, bitmapBytes[0]);
+
+    final FloatingActionButton child = new FloatingActionButton(mMenu.getContext());
+    mMenu.addView(child, 0);
+    assertEquals(FloatingActionButton.RENDER_PROFILE_LOW_END, child.getRenderProfile());
+  }
+
+  private FloatingActionsMenu.Adapter createAdapter(final int count) {
+    return new FloatingActionsMenu.Adapter() {
+      @Override
+      public int getCount() {
+        return count;
+      }
+
+      @Override
+      public FloatingActionsMenu.Action getAction(int position) {
+        return new FloatingActionsMenu.Action(position, 0, Color.RED, Color.BLUE, FloatingActionButton.SIZE_NORMAL);
+      }
+    };
+  }
+
+  private void expandOverflowingMenu() {
+    mMenu.setMaxVisibleActions(3);
+    mMenu.setAdapter(createAdapter(10));
+    mMenu.expand();
+    mMenu.endAnimation();
+    mMenu.measure(View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED),
+        View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+    mMenu.layout(0, 0, mMenu.getMeasuredWidth(), mMenu.getMeasuredHeight());
+  }
+
+  private boolean touch(int action, float x, float y) {
+    final long now = SystemClock.uptimeMillis();
+    final MotionEvent event = MotionEvent.obtain(now, now, action, x, y, 0);
+    final boolean handled = mMenu.onTouchEvent(event);
+    event.recycle();
+    return handled;
+  }
+
+  @Test
+  public void onlyGesturesOnTheActionsAreClaimed() {
+    expandOverflowingMenu();
+    final View addButton = mMenu.findViewById(R.id.fab_expand_menu_button);
+    final View[] actions = mMenu.getActions();
+
+    assertFalse(touch(MotionEvent.ACTION_DOWN, addButton.getLeft() + 1, addButton.getBottom() - 1));
+    assertTrue(touch(MotionEvent.ACTION_DOWN, actions[0].getLeft() + 1, actions[0].getTop() + 1));
+    assertTrue(touch(MotionEvent.ACTION_UP, actions[0].getLeft() + 1, actions[0].getTop() + 1));
+  }
+
+  @Test
+  public void dragMovesTheActionsWithTheFinger() {
+    expandOverflowingMenu();
+    final View[] actions = mMenu.getActions();
+    final View nearest = actions[mMenu.getActionCount() - 1];
+    final float x = nearest.getLeft() + 1;
+    final float y = nearest.getTop() + 1;
+    final float step = actions[1].getTop() - actions[0].getTop();
+    final float slop = ViewConfiguration.get(mMenu.getContext()).getScaledTouchSlop();
+
+    // the drag starts counting once it leaves the touch slop
+    touch(MotionEvent.ACTION_DOWN, x, y);
+    touch(MotionEvent.ACTION_MOVE, x, y + slop);
+    assertEquals(0f, ViewHelper.getTranslationY(nearest), 0f);
+    touch(MotionEvent.ACTION_MOVE, x, y + slop + step / 4);
+    assertEquals(step / 4, ViewHelper.getTranslationY(nearest), 0.01f);
+    final View first = mMenu.getActions()[0];
+
+    // a whole step moves the window by one action and keeps the rest as a translation
+    touch(MotionEvent.ACTION_MOVE, x, y + slop + step + step / 4);
+    assertSame(first, mMenu.getActions()[1]);
+    assertEquals(step / 4, ViewHelper.getTranslationY(first), 0.01f);
+
+    // releasing settles the strip back onto the nearest window
+    touch(MotionEvent.ACTION_UP, x, y + slop + step + step / 4);
+    ShadowLooper.shadowMainLooper().idleFor(Duration.ofMillis(500));
+    assertSame(first, mMenu.getActions()[1]);
+    assertEquals(0f, ViewHelper.getTranslationY(first), 0f);
+  }
+
+  @Test
+  public void scrollingTheWindowOnlyAddsAndRemovesTheEdgeButtons() {
+    expandOverflowingMenu();
+    final int[] changes = new int[2];
+    mMenu.setOnHierarchyChangeListener(new ViewGroup.OnHierarchyChangeListener() {
+      @Override
+      public void onChildViewAdded(View parent, View child) {
+        changes[0]++;
+      }
+
+      @Override
+      public void onChildViewRemoved(View parent, View child) {
+        changes[1]++;
+      }
+    });
+
+    mMenu.scrollActions(1);
+    assertEquals(1, changes[0]);
+    assertEquals(1, changes[1]);
+
+    mMenu.scrollActions(-1);
+    assertEquals(2, changes[0]);
+    assertEquals(2, changes[1]);
+  }
+
+  private static void assertVisibilities(View[] actions) {
+    assertEquals(View.VISIBLE, actions[0].getVisibility());
+    assertEquals(View.GONE, actions[1].getVisibility());
+    assertEquals(View.VISIBLE, actions[2].getVisibility());
+  }
+
+  private void assertRegistryMatchesChildren(View addButton) {
+    final View[] actions = mMenu.getActions();
+    final int actionCount = mMenu.getActionCount();
+    assertEquals(mMenu.getChildCount() - 1, actionCount);
+    assertTrue(actions.length <= Math.max(4, 2 * MAX_ACTIONS));
+
+    int index = 0;
+    for (int i = 0; i < mMenu.getChildCount(); i++) {
+      final View child = mMenu.getChildAt(i);
+      if (child != addButton) {
+        assertSame(child, actions[index++]);
+      }
+    }
+    for (int i = actionCount; i < actions.length; i++) {
+      assertNull(actions[i]);
+    }
+  }
+}
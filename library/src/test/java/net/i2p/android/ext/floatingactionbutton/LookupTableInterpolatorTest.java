@@ -0,0 +1,82 @@
+package net.i2p.android.ext.floatingactionbutton;
+
+import android.view.animation.Interpolator;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class LookupTableInterpolatorTest {
+  private static final int POINTS = 100000;
+  private static final float STEP = 1f / (LookupTableInterpolator.DEFAULT_SAMPLES - 1);
+  private static final double FLOAT_SLACK = 1e-6;
+
+  private final FloatingActionsMenu.Interpolators mAnalytic = new FloatingActionsMenu.Interpolators(false);
+  private final FloatingActionsMenu.Interpolators mTables = new FloatingActionsMenu.Interpolators(true);
+
+  @After
+  public void tearDown() {
+    FloatingActionsMenu.setUseInterpolatorLookupTables(false);
+  }
+
+  // Linear interpolation between samples h apart is off by at most h^2 / 8 * max|f''|.
+  private static double errorBound(double maxSecondDerivative) {
+    return STEP * STEP / 8 * maxSecondDerivative + FLOAT_SLACK;
+  }
+
+  @Test
+  public void expandTableMatchesOvershoot() {
+    // overshoot(t): f'' = 6 * (tension + 1) * (t - 1) + 2 * tension, largest at t = 0: 4 * 2 + 6
+    assertWithinBound(mTables.mExpand, mAnalytic.mExpand, errorBound(14));
+  }
+
+  @Test
+  public void lowEndExpandTableMatchesDecelerate() {
+    // decelerate(factor): f'' = -2f * (2f - 1) * (1 - t)^(2f - 2), largest at t = 0
+    assertWithinBound(mTables.mLowEndExpand, mAnalytic.mLowEndExpand, errorBound(4 * 3));
+  }
+
+  @Test
+  public void collapseTableMatchesDecelerate() {
+    assertWithinBound(mTables.mCollapse, mAnalytic.mCollapse, errorBound(6 * 5));
+  }
+
+  @Test
+  public void alphaTableMatchesDecelerate() {
+    assertWithinBound(mTables.mAlphaExpand, mAnalytic.mAlphaExpand, errorBound(2 * 1));
+  }
+
+  @Test
+  public void rotationTableMatchesOvershoot() {
+    assertWithinBound(mTables.mRotation, mAnalytic.mRotation, errorBound(14));
+  }
+
+  @Test
+  public void tablesAreOptIn() {
+    assertFalse(FloatingActionsMenu.isUsingInterpolatorLookupTables());
+
+    FloatingActionsMenu.setUseInterpolatorLookupTables(true);
+    assertTrue(FloatingActionsMenu.isUsingInterpolatorLookupTables());
+  }
+
+  private static void assertWithinBound(Interpolator table, Interpolator analytic, double bound) {
+    assertTrue(table instanceof LookupTableInterpolator);
+    assertFalse(analytic instanceof LookupTableInterpolator);
+
+    double maxError = 0;
+    for (int i = 0; i <= POINTS; i++) {
+      final float input = i / (float) POINTS;
+      maxError = Math.max(maxError, Math.abs(table.getInterpolation(input) - analytic.getInterpolation(input)));
+    }
+    assertTrue("max error " + maxError + " > " + bound, maxError <= bound);
+
+    assertEquals(analytic.getInterpolation(0f), table.getInterpolation(-0.5f), 0f);
+    assertEquals(analytic.getInterpolation(1f), table.getInterpolation(1.5f), 0f);
+  }
+}